@@ -1,10 +1,23 @@
 package shapes;
  
 
-import javax.swing.*;
 import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.RectangularShape;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.*;
+import javax.swing.SwingUtilities;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
 
 /**
  * Canvas is a class to allow for simple graphical drawing on a canvas.
@@ -16,35 +29,254 @@ import java.util.*;
  *
  * @version: 1.6 (shapes)
  */
-public class Canvas{
+public class Canvas implements Closeable{
     // Note: The implementation of this class (specifically the handling of
     // shape identity and colors) is slightly more complex than necessary. This
     // is done on purpose to keep the interface and instance fields of the
     // shape objects in this project clean and simple for educational purposes.
 
-    private static Canvas canvasSingleton;
+    /**
+     * Number of z-layers. Shapes in a higher layer are always painted on
+     * top of the shapes in a lower layer; inside a layer, shapes are
+     * painted in the order they were first drawn.
+     */
+    public static final int LAYERS = 4;
+
+    /**
+     * The layer for static content. Its shapes are rasterized once into a
+     * cached background image, which is only rasterized again where a
+     * static shape is drawn, moved or erased. Frames copy that background
+     * and paint just the layers above it.
+     */
+    public static final int STATIC_LAYER = 0;
+
+    /**
+     * The layer of shapes that do not choose one.
+     */
+    public static final int DEFAULT_LAYER = 1;
+
+    /**
+     * Frames per second of the render loop, unless the "shapes.fps" system
+     * property or setFrameRate() says otherwise.
+     */
+    public static final int DEFAULT_FRAME_RATE = 60;
+
+    /**
+     * Duration of an animated move, in milliseconds. It does not depend on
+     * the distance travelled.
+     */
+    public static final int TWEEN_MILLIS = 300;
+
+    /**
+     * How long a blinking shape shows its flash color, and then its own
+     * color again, in milliseconds.
+     */
+    public static final int BLINK_MILLIS = 120;
+
+    /**
+     * Most commands the render loop applies before painting a frame, so
+     * that a very busy simulation cannot keep it from painting.
+     */
+    public static final int MAX_COMMANDS_PER_FRAME = 1 << 16;
+
+    // slots of the command ring; producers wait when the render loop is
+    // this far behind
+    private static final int QUEUE_CAPACITY = 1 << 14;
+
+    // side of the tiles used to find the shapes of a region, in pixels
+    private static final int TILE_SIZE = 128;
+
+    // paint order: by layer, then in the order shapes reached their layer
+    private static final Comparator<ShapeDescription> PAINT_ORDER = 
+        (a, b) -> a.layer != b.layer ? Integer.compare(a.layer, b.layer)
+                                     : Long.compare(a.order, b.order);
+
+    private static volatile Canvas canvasSingleton;
+    private static final Canvas NONE = new Canvas("BlueJ Shapes Demo", 800, 600, 
+                                                  Color.white, new NullBackend());
 
     /**
-     * Factory method to get the canvas singleton object.
+     * Factory method to get the canvas singleton object: the canvas shared
+     * by every shape that was not given one of its own.
      */
     public static Canvas getCanvas(){
-        if(canvasSingleton == null) {
+        Canvas canvas = canvasSingleton;
+        if(canvas == null) {
+            synchronized(Canvas.class) {
+                if(canvasSingleton == null) {
+                    canvasSingleton = new Canvas("BlueJ Shapes Demo", 800, 600, 
+                                                 Color.white, selectBackend());
+                }
+                canvas = canvasSingleton;
+            }
+        }
+        if(!canvas.visible) {
+            canvas.setVisible(true);
+        }
+        return canvas;
+    }
+
+    /**
+     * The canvas that draws nothing: its backend ignores every shape and it
+     * keeps no scene. Shapes given a null canvas draw here, so null always
+     * means "draw nothing" when a canvas is given; only the constructors
+     * that take no canvas use the shared one (see getCanvas).
+     */
+    public static Canvas none(){
+        return NONE;
+    }
+
+    /**
+     * Create a canvas of its own, not shared with the rest of the program.
+     * It has its own scene and render loop, so several simulations can
+     * draw at the same time, each one from its own thread, without seeing
+     * the shapes of the others.
+     * @param backend  the backend that will receive the drawing
+     * @return the new canvas, already visible
+     */
+    public static Canvas create(RenderBackend backend){
+        return create(backend, System::currentTimeMillis);
+    }
+
+    /**
+     * Create a canvas of its own whose animations follow a given clock
+     * instead of the time of the machine, such as a clock a test moves
+     * by hand. The render loop still paints on its frame timer, and each
+     * frame reads the clock to know how far moves and blinks are.
+     * @param backend  the backend that will receive the drawing
+     * @param clock    the current time, in milliseconds
+     * @return the new canvas, already visible
+     */
+    public static Canvas create(RenderBackend backend, LongSupplier clock){
+        Canvas canvas = new Canvas("BlueJ Shapes Demo", 800, 600, 
+                                   Color.white, backend, clock);
+        canvas.setVisible(true);
+        return canvas;
+    }
+
+    /**
+     * Replace the canvas singleton with a new one that draws on the given
+     * backend. Shapes drawn before the change are not carried over. The
+     * canvas replaced is closed (see close): its render loop stops and
+     * its backend is closed if it can be.
+     * @param backend  the backend that will receive the drawing
+     * @throws UncheckedIOException if the old backend could not be closed;
+     *         the new canvas is in use anyway
+     */
+    public static void useBackend(RenderBackend backend){
+        Canvas old;
+        synchronized(Canvas.class) {
+            old = canvasSingleton;
             canvasSingleton = new Canvas("BlueJ Shapes Demo", 800, 600, 
-                                         Color.white);
+                                         Color.white, backend);
         }
-        canvasSingleton.setVisible(true);
-        return canvasSingleton;
+        // not under the lock: closing waits for the Swing thread
+        if(old != null) {
+            try{
+                old.close();
+            } catch (IOException e){
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Choose the startup backend from the "shapes.backend" system property.
+     * Without the property, a window is used unless the machine is headless.
+     */
+    private static RenderBackend selectBackend(){
+        String name = System.getProperty("shapes.backend");
+        if(name == null) {
+            name = GraphicsEnvironment.isHeadless() ? "none" : "swing";
+        }
+        if(name.equals("none"))
+            return new NullBackend();
+        else if(name.equals("recording"))
+            return new RecordingBackend();
+        else if(name.equals("frames"))
+            return exportFrames();
+        else
+            return new SwingBackend();
+    }
+
+    /**
+     * The frame export backend chosen at startup. Nobody else holds it, so
+     * it is closed when the program ends: the frames still waiting for
+     * the encoder are written.
+     */
+    private static FrameExportBackend exportFrames(){
+        FrameExportBackend frames = 
+            new FrameExportBackend(new File(System.getProperty("shapes.frames", "frames")),
+                                   Integer.getInteger("shapes.fps", DEFAULT_FRAME_RATE));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try{
+                frames.close();
+            } catch (IOException e){
+                System.err.println("Could not write the last frames: " + e.getMessage());
+            }
+        }, "frame export shutdown"));
+        return frames;
     }
 
     //  ----- instance part -----
 
-    private JFrame frame;
-    private CanvasPane canvas;
+    // Shapes may be drawn from any thread. Every change is written into a
+    // reused command slot of a lock-free ring; only the render loop (on
+    // the Swing EDT) reads the commands and touches the scene, the images
+    // and the fields marked "render loop only". Only raster backends get a
+    // render loop and images. Canvases without raster do no AWT work at
+    // all: changes go straight to the backend, and to a scene kept on the
+    // calling thread only once picking is enabled (see enablePicking).
+
+    private RenderBackend backend;
+    private boolean rasterized;
+    // the time animations follow, in milliseconds
+    private LongSupplier clock;
+    // without raster: keep a scene, so shapes can be found by place
+    private volatile boolean picking;
+    // without raster: the command applied right away, on the calling
+    // thread; it is also the lock of the scene
+    private Command direct;
+    private volatile boolean visible;
+    private CommandQueue <Command> commands;
+    // a drain of the full command ring is waiting on the EDT
+    private AtomicBoolean draining;
+    private AtomicInteger openBatches;
     private Graphics2D graphic;
     private Color backgroundColour;
-    private Image canvasImage;
-    private List <Object> objects;
+    private BufferedImage canvasImage;
+    // background colour plus the static layer, rasterized once
+    private BufferedImage backgroundImage;
+    private Graphics2D backgroundGraphic;
+    private int width;
+    private int height;
+    // the view asked for: world point at the top left corner, and zoom
+    private double viewX, viewY, zoom;
+    // render loop only: the view shown, as a world-to-image transform
+    private double shownViewX, shownViewY, shownZoom;
+    private AffineTransform viewTransform;
+    private AffineTransform identity;
+    // render loop only: the scene, and the tiles its shapes are shown on
     private HashMap <Object,ShapeDescription> shapes;
+    private TileGrid <ShapeDescription> tiles;
+    private long lastOrder;
+    // render loop only: shapes found for the region being painted
+    private ArrayList <ShapeDescription> found;
+    private int findStamp;
+    private java.awt.Rectangle area;
+    // render loop only: shapes whose animated move is not finished
+    private List <ShapeDescription> tweens;
+    // render loop only: shapes that have not finished blinking
+    private List <ShapeDescription> blinks;
+    // render loop: paints at most one frame per tick, on the Swing EDT
+    private javax.swing.Timer frameClock;
+    private AtomicBoolean clockRunning;
+    // render loop only: batches applied but not committed yet
+    private int batchDepth;
+    // render loop only: region waiting to be repainted, and the part of
+    // it where the cached background must be rasterized again
+    private Region damage;
+    private Region staticDamage;
     
     /**
      * Create a Canvas.
@@ -52,17 +284,160 @@ public class Canvas{
      * @param width  the desired width for the canvas
      * @param height  the desired height for the canvas
      * @param bgClour  the desired background colour of the canvas
+     * @param backend  the backend that shows the drawing
+     */
+    private Canvas(String title, int width, int height, Color bgColour,
+                   RenderBackend backend){
+        this(title, width, height, bgColour, backend, System::currentTimeMillis);
+    }
+
+    /**
+     * Create a Canvas whose animations follow a given clock.
+     * @param clock  the current time, in milliseconds
      */
-    private Canvas(String title, int width, int height, Color bgColour){
-        frame = new JFrame();
-        canvas = new CanvasPane();
-        frame.setContentPane(canvas);
-        frame.setTitle(title);
-        canvas.setPreferredSize(new Dimension(width, height));
+    private Canvas(String title, int width, int height, Color bgColour,
+                   RenderBackend backend, LongSupplier clock){
+        this.backend = backend;
+        this.clock = clock;
+        this.width = width;
+        this.height = height;
         backgroundColour = bgColour;
-        frame.pack();
-        objects = new ArrayList <Object>();
+        backend.open(title, width, height);
+        rasterized = backend.isRasterized();
+        direct = new Command();
+        openBatches = new AtomicInteger();
+        zoom = shownZoom = 1;
+        viewTransform = new AffineTransform();
+        identity = new AffineTransform();
         shapes = new HashMap <Object,ShapeDescription>();
+        tiles = new TileGrid <ShapeDescription>(TILE_SIZE);
+        found = new ArrayList <ShapeDescription>();
+        area = new java.awt.Rectangle();
+        tweens = new ArrayList <ShapeDescription>();
+        blinks = new ArrayList <ShapeDescription>();
+        damage = new Region();
+        staticDamage = new Region();
+        int frameMillis = frameMillis(Integer.getInteger("shapes.fps", DEFAULT_FRAME_RATE));
+        if(rasterized) {
+            commands = new CommandQueue <Command>(QUEUE_CAPACITY, Command::new);
+            draining = new AtomicBoolean();
+            frameClock = new javax.swing.Timer(frameMillis, e -> tick());
+            frameClock.setCoalesce(true);  // late ticks are dropped, not queued
+            clockRunning = new AtomicBoolean();
+            // the offscreen image and the cached background, filled with
+            // the background colour
+            canvasImage = new BufferedImage(width, height, 
+                                            BufferedImage.TYPE_INT_RGB);
+            graphic = canvasImage.createGraphics();
+            graphic.setColor(backgroundColour);
+            graphic.fillRect(0, 0, width, height);
+            graphic.setColor(Color.black);
+            backgroundImage = new BufferedImage(width, height, 
+                                                BufferedImage.TYPE_INT_RGB);
+            backgroundGraphic = backgroundImage.createGraphics();
+            backgroundGraphic.setColor(backgroundColour);
+            backgroundGraphic.fillRect(0, 0, width, height);
+        }
+    }
+
+    /**
+     * Change how many frames per second the render loop paints. Changes
+     * made between two frames are shown together in the next one.
+     * @param framesPerSecond  the new frame rate, at least 1
+     */
+    public void setFrameRate(int framesPerSecond){
+        int frameMillis = frameMillis(framesPerSecond);
+        if(rasterized) {
+            frameClock.setDelay(frameMillis);
+        }
+    }
+
+    /**
+     * Milliseconds between two frames at the given frame rate; rates above
+     * 1000 run the loop every millisecond.
+     */
+    private static int frameMillis(int framesPerSecond){
+        if(framesPerSecond < 1) {
+            throw new IllegalArgumentException("frame rate must be positive");
+        }
+        return Math.max(1, 1000 / framesPerSecond);
+    }
+
+    /**
+     * Choose the part of the world shown by the canvas. Shapes keep their
+     * own (world) coordinates; the canvas shows the world rectangle whose
+     * top left corner is (x, y), scaled by the zoom. Only the shapes on the
+     * tiles of that rectangle are painted, so the cost of a frame depends
+     * on what is visible and not on the size of the whole scene.
+     * @param  x     world x coordinate shown at the left border
+     * @param  y     world y coordinate shown at the top border
+     * @param  zoom  scale of the view, greater than 0 (1 is one pixel per unit)
+     */
+    public synchronized void setView(double x, double y, double zoom){
+        if(!(zoom > 0) || Double.isInfinite(zoom)) {
+            throw new IllegalArgumentException("zoom must be positive: " + zoom);
+        }
+        viewX = x;
+        viewY = y;
+        this.zoom = zoom;
+        if(rasterized) {
+            publish(Command.VIEW, x, y, zoom);
+        } else {
+            synchronized(direct) {
+                direct.setView(Command.VIEW, x, y, zoom);
+                applyNow();
+            }
+        }
+    }
+
+    /**
+     * Move the view.
+     * @param  dx  world distance to move right (negative: left)
+     * @param  dy  world distance to move down (negative: up)
+     */
+    public synchronized void pan(double dx, double dy){
+        setView(viewX + dx, viewY + dy, zoom);
+    }
+
+    /**
+     * Change the zoom of the view, keeping its center in place.
+     * @param  zoom  the new scale, greater than 0
+     */
+    public synchronized void setZoom(double zoom){
+        if(!(zoom > 0) || Double.isInfinite(zoom)) {
+            throw new IllegalArgumentException("zoom must be positive: " + zoom);
+        }
+        double centerX = viewX + width / (2 * this.zoom);
+        double centerY = viewY + height / (2 * this.zoom);
+        setView(centerX - width / (2 * zoom), centerY - height / (2 * zoom), zoom);
+    }
+
+    /**
+     * @return the world x coordinate shown at the left border
+     */
+    public synchronized double getViewX(){
+        return viewX;
+    }
+
+    /**
+     * @return the world y coordinate shown at the top border
+     */
+    public synchronized double getViewY(){
+        return viewY;
+    }
+
+    /**
+     * @return the scale of the view
+     */
+    public synchronized double getZoom(){
+        return zoom;
+    }
+
+    /**
+     * @return the backend this canvas draws on
+     */
+    public RenderBackend getBackend(){
+        return backend;
     }
 
     /**
@@ -73,43 +448,615 @@ public class Canvas{
      * the canvas (true or false) 
      */
     public void setVisible(boolean visible){
-        if(graphic == null) {
-            // first time: instantiate the offscreen image and fill it with
-            // the background colour
-            Dimension size = canvas.getSize();
-            canvasImage = canvas.createImage(size.width, size.height);
-            graphic = (Graphics2D)canvasImage.getGraphics();
-            graphic.setColor(backgroundColour);
-            graphic.fillRect(0, 0, size.width, size.height);
-            graphic.setColor(Color.black);
-        }
-        frame.setVisible(visible);
+        this.visible = visible;
+        backend.setVisible(visible);
     }
 
     /**
-     * Draw a given shape onto the canvas.
+     * Draw a given shape onto the default layer of the canvas.
      * @param  referenceObject  an object to define identity for this shape
      * @param  color            the color of the shape
      * @param  shape            the shape object to be drawn on the canvas
      */
+    public void draw(Object referenceObject, String color, java.awt.Shape shape){
+        draw(referenceObject, Palette.resolve(color), shape, DEFAULT_LAYER);
+    }
+
+    /**
+     * Draw a given shape onto a layer of the canvas. Drawing a shape that
+     * is already on the canvas updates it in place: it keeps its position
+     * in the paint order unless it changes layer.
+     * @param  referenceObject  an object to define identity for this shape
+     * @param  color            the color of the shape, see Palette
+     * @param  shape            the shape object to be drawn on the canvas
+     * @param  layer            the z-layer, from 0 (bottom) to LAYERS - 1
+     */
      // Note: this is a slightly backwards way of maintaining the shape
      // objects. It is carefully designed to keep the visible shape interfaces
      // in this project clean and simple for educational purposes.
-    public void draw(Object referenceObject, String color, java.awt.Shape shape){
-        objects.remove(referenceObject);   // just in case it was already there
-        objects.add(referenceObject);      // add at the end
-        shapes.put(referenceObject, new ShapeDescription(shape, color));
-        redraw();
+    public void draw(Object referenceObject, Color color, 
+                     java.awt.Shape shape, int layer){
+        checkLayer(layer);
+        backend.shapeDrawn(referenceObject, color, shape);
+        if(rasterized) {
+            publish(Command.DRAW, referenceObject, color, shape, layer);
+        } else if(picking) {
+            applyNow(Command.DRAW, referenceObject, color, shape, layer);
+        }
+    }
+
+    /**
+     * Draw a given shape, moving it smoothly from the place where it is
+     * shown now to its new place. The move lasts TWEEN_MILLIS whatever the
+     * distance, and this method returns at once: the render loop of the
+     * canvas does the animation. Backends without raster are told the
+     * final place directly.
+     * @param  referenceObject  an object to define identity for this shape
+     * @param  color            the color of the shape, see Palette
+     * @param  shape            the shape object at its final place
+     * @param  layer            the z-layer, from 0 (bottom) to LAYERS - 1
+     */
+    public void animate(Object referenceObject, Color color, 
+                        java.awt.Shape shape, int layer){
+        checkLayer(layer);
+        backend.shapeDrawn(referenceObject, color, shape);
+        if(rasterized) {
+            publish(Command.ANIMATE, referenceObject, color, shape, layer);
+        } else if(picking) {
+            applyNow(Command.DRAW, referenceObject, color, shape, layer);
+        }
     }
  
+    /**
+     * Make a shape on the canvas blink: it is shown in the flash color
+     * for BLINK_MILLIS, then in its own color for BLINK_MILLIS, as many
+     * times as asked. This method returns at once: the render loop of the
+     * canvas does the blinking. Backends without raster are not told,
+     * since the shape ends as it was.
+     * @param  referenceObject  the shape object to blink
+     * @param  flash            the color shown while flashing, see Palette
+     * @param  times            how many flashes, 0 or more
+     */
+    public void blink(Object referenceObject, Color flash, int times){
+        if(times < 0) {
+            throw new IllegalArgumentException("blink times must not be negative");
+        }
+        if(rasterized && times > 0) {
+            publish(Command.BLINK, referenceObject, flash, null, times);
+        }
+    }
+
     /**
      * Erase a given shape's from the screen.
      * @param  referenceObject  the shape object to be erased 
      */
     public void erase(Object referenceObject){
-        objects.remove(referenceObject);   // just in case it was already there
-        shapes.remove(referenceObject);
+        backend.shapeErased(referenceObject);
+        if(rasterized) {
+            publish(Command.ERASE, referenceObject, null, null, 0);
+        } else if(picking) {
+            applyNow(Command.ERASE, referenceObject, null, null, 0);
+        }
+    }
+
+    /**
+     * Find the shape shown at a point: the one painted on top of the
+     * others there. Only the shapes on the tile of the point are looked at.
+     * The changes made before by the calling thread are taken into account.
+     * @param  x  world x coordinate
+     * @param  y  world y coordinate
+     * @return the reference object of the shape, or null if there is none
+     */
+    public Object shapeAt(double x, double y){
+        return ask(() -> {
+            findAt(x, y);
+            return found.isEmpty() ? null : found.get(found.size() - 1).referenceObject;
+        });
+    }
+
+    /**
+     * Find every shape shown at a point, also those covered by others.
+     * @param  x  world x coordinate
+     * @param  y  world y coordinate
+     * @return the reference objects of the shapes, the one on top first
+     */
+    public List<Object> shapesAt(double x, double y){
+        return ask(() -> {
+            findAt(x, y);
+            List<Object> result = new ArrayList<Object>(found.size());
+            for(int i = found.size() - 1; i >= 0; i--) {
+                result.add(found.get(i).referenceObject);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Find the shape shown at a point of the canvas image, as given by a
+     * mouse event: the point is taken through the current view.
+     * @param  imageX  x coordinate in the image
+     * @param  imageY  y coordinate in the image
+     * @return the reference object of the shape, or null if there is none
+     */
+    public Object pick(int imageX, int imageY){
+        return ask(() -> {
+            findAt(shownViewX + imageX / shownZoom, shownViewY + imageY / shownZoom);
+            return found.isEmpty() ? null : found.get(found.size() - 1).referenceObject;
+        });
+    }
+
+    /**
+     * Find the shapes whose painted area touches a rectangle. Only the
+     * shapes on the tiles of the rectangle are looked at.
+     * @param  x       world x coordinate of the rectangle
+     * @param  y       world y coordinate of the rectangle
+     * @param  width   width of the rectangle
+     * @param  height  height of the rectangle
+     * @return the reference objects of the shapes, in paint order
+     */
+    public List<Object> shapesIn(double x, double y, double width, double height){
+        return ask(() -> {
+            int left = (int)Math.floor(x);
+            int top = (int)Math.floor(y);
+            int w = Math.max((int)Math.ceil(x + width) - left, 1);
+            int h = Math.max((int)Math.ceil(y + height) - top, 1);
+            findIn(left, top, w, h, 0, LAYERS);
+            List<Object> result = new ArrayList<Object>(found.size());
+            for(ShapeDescription description : found) {
+                result.add(description.referenceObject);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Keep the shapes drawn from now on in a scene, so that they can be
+     * found by place (shapeAt, shapesAt, pick, shapesIn) on a canvas
+     * without raster. Such a canvas keeps no scene by default: it answers
+     * that there is no shape anywhere. Once enabled, the scene is changed
+     * and asked on the calling thread, without any render loop. Canvases
+     * with raster always keep their scene.
+     */
+    public void enablePicking(){
+        picking = true;
+    }
+
+    /**
+     * Answer a question about the scene on the render loop, after the
+     * commands already published by the calling thread. Canvases without
+     * raster answer on the calling thread.
+     */
+    private <T> T ask(java.util.concurrent.Callable<T> question){
+        FutureTask<T> task = new FutureTask<T>(question);
+        if(!rasterized) {
+            synchronized(direct) {
+                task.run();
+            }
+        } else if(SwingUtilities.isEventDispatchThread()) {
+            while(!commands.isEmpty()) {
+                applyCommands();
+            }
+            task.run();
+        } else {
+            long position = claim();
+            commands.slot(position).setQuery(task);
+            publish(position);
+        }
+        try{
+            return task.get();
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while asking the canvas", e);
+        } catch (ExecutionException e){
+            throw new IllegalStateException("the canvas could not answer", e.getCause());
+        }
+    }
+
+    /**
+     * Leave in the found list, in paint order, the shapes shown at a
+     * world point. Render loop only.
+     */
+    private void findAt(double x, double y){
+        int tileX = tiles.tileOf((int)Math.floor(x));
+        int tileY = tiles.tileOf((int)Math.floor(y));
+        found.clear();
+        tiles.collect(tileX, tileY, tileX, tileY, found);
+        int count = 0;
+        for(int i = 0; i < found.size(); i++) {
+            ShapeDescription description = found.get(i);
+            if(description.shape.contains(x - description.offsetX, y - description.offsetY)) {
+                found.set(count++, description);
+            }
+        }
+        while(found.size() > count) {
+            found.remove(found.size() - 1);
+        }
+        found.sort(PAINT_ORDER);
+    }
+
+    private static void checkLayer(int layer){
+        if(layer < 0 || layer >= LAYERS) {
+            throw new IllegalArgumentException("layer out of range: " + layer);
+        }
+    }
+
+    /**
+     * Apply a shape change to the scene of a canvas without raster, on the
+     * calling thread.
+     */
+    private void applyNow(int kind, Object referenceObject, Color color, 
+                          java.awt.Shape shape, int layer){
+        synchronized(direct) {
+            direct.set(kind, referenceObject, color, shape, layer);
+            applyNow();
+        }
+    }
+
+    /**
+     * Apply the direct command, with its lock held. Nothing is painted, so
+     * the damage is dropped.
+     */
+    private void applyNow(){
+        apply(direct);
+        direct.clear();
+        damage.clear();
+        staticDamage.clear();
+    }
+
+    /**
+     * Hand a shape command to the render loop.
+     */
+    private void publish(int kind, Object referenceObject, Color color, 
+                         java.awt.Shape shape, int layer){
+        long position = claim();
+        commands.slot(position).set(kind, referenceObject, color, shape, layer);
+        publish(position);
+    }
+
+    /**
+     * Hand a view command to the render loop.
+     */
+    private void publish(int kind, double x, double y, double zoom){
+        long position = claim();
+        commands.slot(position).setView(kind, x, y, zoom);
+        publish(position);
+    }
+
+    /**
+     * Claim a slot of the command ring. When the ring is full the render
+     * loop is behind: on the EDT the commands are applied right away,
+     * other threads ask the EDT to apply them and wait for a free slot.
+     */
+    private long claim(){
+        long position = commands.claim();
+        while(position < 0) {
+            if(SwingUtilities.isEventDispatchThread()) {
+                applyCommands();
+            } else {
+                if(draining.compareAndSet(false, true)) {
+                    SwingUtilities.invokeLater(() -> {
+                        draining.set(false);
+                        applyCommands();
+                    });
+                }
+                Thread.yield();
+            }
+            position = commands.claim();
+        }
+        return position;
+    }
+
+    /**
+     * Hand a filled slot to the render loop, waking it up if it was idle.
+     */
+    private void publish(long position){
+        commands.publish(position);
+        if(!clockRunning.get() && clockRunning.compareAndSet(false, true)) {
+            frameClock.start();
+        }
+    }
+
+    /**
+     * Apply the commands published since the last frame to the scene.
+     * Render loop only.
+     */
+    private void applyCommands(){
+        for(int i = 0; i < MAX_COMMANDS_PER_FRAME; i++) {
+            Command command = commands.peek();
+            if(command == null) {
+                return;
+            }
+            apply(command);
+            command.clear();
+            commands.release();
+        }
+    }
+
+    /**
+     * Apply one command to the scene.
+     */
+    private void apply(Command command){
+        switch(command.kind) {
+            case Command.DRAW:    applyDraw(command); break;
+            case Command.ANIMATE: applyAnimate(command); break;
+            case Command.ERASE:   applyErase(command.referenceObject); break;
+            case Command.BEGIN:   batchDepth++; break;
+            case Command.COMMIT:  batchDepth--; break;
+            case Command.BLINK:   applyBlink(command); break;
+            case Command.VIEW:    applyView(command); break;
+            case Command.QUERY:   command.query.run(); break;
+        }
+    }
+
+    private void applyDraw(Command command){
+        ShapeDescription description = update(command);
+        if(description.tweening && description.moved) {
+            stopTween(description);        // a direct move ends the animation
+        }
+        damage(description);
+    }
+
+    private void applyAnimate(Command command){
+        int shownX = 0;
+        int shownY = 0;
+        ShapeDescription description = shapes.get(command.referenceObject);
+        if(description != null) {
+            shownX = description.x + description.offsetX;
+            shownY = description.y + description.offsetY;
+        }
+        description = update(command);
+        if(description.moved && !description.isNew) {
+            // shown first where it was, it reaches its place with the clock
+            description.startOffsetX = shownX - description.x;
+            description.startOffsetY = shownY - description.y;
+            description.offsetX = description.startOffsetX;
+            description.offsetY = description.startOffsetY;
+            description.tweenStart = clock.getAsLong();
+            startTween(description);
+        }
+        damage(description);
+    }
+
+    /**
+     * Register or update the description of a shape. The old painted
+     * area of an existing shape is added to the damaged region.
+     */
+    private ShapeDescription update(Command command){
+        ShapeDescription description = shapes.get(command.referenceObject);
+        if(description == null) {
+            description = new ShapeDescription();
+            description.referenceObject = command.referenceObject;
+            shapes.put(command.referenceObject, description);
+            description.set(command);
+            description.isNew = true;
+            raise(description, command.layer);
+        } else {
+            damage(description);           // where the shape used to be
+            description.set(command);
+            description.isNew = false;
+            if(description.layer != command.layer) {
+                raise(description, command.layer);
+            }
+        }
+        return description;
+    }
+
+    /**
+     * Start (or start again) the blinking of a shape on the canvas.
+     */
+    private void applyBlink(Command command){
+        ShapeDescription description = shapes.get(command.referenceObject);
+        if(description == null) {
+            return;                        // not on the canvas any more
+        }
+        description.flash = command.color;
+        description.flashes = command.layer;
+        description.blinkStart = clock.getAsLong();
+        if(!description.blinking) {
+            description.blinking = true;
+            blinks.add(description);
+        }
+        description.flashOn = true;
+        damage(description);
+    }
+
+    private void applyErase(Object referenceObject){
+        ShapeDescription previous = shapes.remove(referenceObject);
+        if(previous != null) {
+            damage(previous);
+            if(previous.tweening) {
+                stopTween(previous);
+            }
+            if(previous.blinking) {
+                previous.blinking = false;
+                blinks.remove(previous);
+            }
+            tiles.remove(previous, previous.tileX1, previous.tileY1, 
+                         previous.tileX2, previous.tileY2);
+        }
+    }
+
+    /**
+     * Show another part of the world: everything visible is damaged.
+     */
+    private void applyView(Command command){
+        shownViewX = command.frameX;
+        shownViewY = command.frameY;
+        shownZoom = command.frameWidth;
+        viewTransform.setToScale(shownZoom, shownZoom);
+        viewTransform.translate(-shownViewX, -shownViewY);
+        int x = (int)Math.floor(shownViewX);
+        int y = (int)Math.floor(shownViewY);
+        int w = (int)Math.ceil(width / shownZoom) + 2;
+        int h = (int)Math.ceil(height / shownZoom) + 2;
+        damage.add(x, y, w, h);
+        staticDamage.add(x, y, w, h);
+    }
+
+    /**
+     * Put a shape description at the top of a layer.
+     */
+    private void raise(ShapeDescription description, int layer){
+        description.layer = layer;
+        description.order = ++lastOrder;
+    }
+
+    /**
+     * Start a batch of changes. Until the matching commitBatch(), the
+     * render loop paints no frame, so all the changes of the batch show
+     * up together in one frame. Batches can be nested.
+     */
+    public void beginBatch(){
+        openBatches.incrementAndGet();
+        if(rasterized) {
+            publish(Command.BEGIN, null, null, null, 0);
+        }
+    }
+
+    /**
+     * End a batch of changes started with beginBatch(). When the outer
+     * batch ends, the next frame paints the damaged region once.
+     */
+    public void commitBatch(){
+        if(openBatches.getAndUpdate(n -> n > 0 ? n - 1 : n) == 0) {
+            throw new IllegalStateException("no batch to commit");
+        }
+        if(rasterized) {
+            publish(Command.COMMIT, null, null, null, 0);
+        }
+    }
+
+    /**
+     * Run some changes as one batch, so that they show up in one frame.
+     * @param  changes  the drawing work to do
+     */
+    public void batch(Runnable changes){
+        beginBatch();
+        try{
+            changes.run();
+        } finally {
+            commitBatch();
+        }
+    }
+
+    /**
+     * Add a shape to the animated shapes moved by the render loop.
+     */
+    private void startTween(ShapeDescription description){
+        if(!description.tweening) {
+            description.tweening = true;
+            tweens.add(description);
+        }
+    }
+
+    /**
+     * End the animation of a shape, leaving it at its final place.
+     */
+    private void stopTween(ShapeDescription description){
+        description.tweening = false;
+        description.offsetX = 0;
+        description.offsetY = 0;
+        tweens.remove(description);
+    }
+
+    /**
+     * One tick of the render loop, on the Swing EDT: apply the published
+     * commands, move every animated shape to the place it should have at
+     * this time, show every blinking shape in the color it should have at
+     * this time and paint everything that changed since the last frame as
+     * one frame. Nothing is painted while a batch is open.
+     */
+    private void tick(){
+        applyCommands();
+        if(batchDepth > 0) {
+            return;
+        }
+        long now = clock.getAsLong();
+        for(int i = tweens.size() - 1; i >= 0; i--) {
+            ShapeDescription description = tweens.get(i);
+            damage(description);
+            double remaining = 1.0 - (now - description.tweenStart) / (double)TWEEN_MILLIS;
+            if(remaining <= 0) {
+                remaining = 0;
+                description.tweening = false;
+                tweens.remove(i);
+            }
+            description.offsetX = (int)Math.round(description.startOffsetX * remaining);
+            description.offsetY = (int)Math.round(description.startOffsetY * remaining);
+            damage(description);
+        }
+        for(int i = blinks.size() - 1; i >= 0; i--) {
+            ShapeDescription description = blinks.get(i);
+            long phase = (now - description.blinkStart) / BLINK_MILLIS;
+            boolean on = phase % 2 == 0 && phase < 2L * description.flashes;
+            if(on != description.flashOn) {
+                description.flashOn = on;
+                damage(description);
+            }
+            if(phase >= 2L * description.flashes) {
+                description.blinking = false;
+                blinks.remove(i);
+            }
+        }
         redraw();
+        if(tweens.isEmpty() && blinks.isEmpty() && commands.isEmpty()) {
+            // idle: stop, unless a command arrived while stopping. The
+            // clock stops before the flag is cleared, so a producer that
+            // sees the flag cleared is never undone by this stop
+            frameClock.stop();
+            clockRunning.set(false);
+            if(!commands.isEmpty() && clockRunning.compareAndSet(false, true)) {
+                frameClock.start();
+            }
+        }
+    }
+
+    /**
+     * Show the changes not painted yet, with every animation at its end,
+     * stop the render loop and close the backend if it can be closed (a
+     * FrameExportBackend writes its last frames). The canvas must not be
+     * used afterwards.
+     * @throws IOException if the backend could not be closed
+     */
+    @Override
+    public void close() throws IOException{
+        if(rasterized) {
+            Runnable flush = () -> {
+                while(!commands.isEmpty()) {
+                    applyCommands();
+                }
+                for(int i = tweens.size() - 1; i >= 0; i--) {
+                    ShapeDescription description = tweens.get(i);
+                    damage(description);
+                    stopTween(description);
+                    damage(description);
+                }
+                for(ShapeDescription description : blinks) {
+                    description.blinking = false;
+                    damage(description);
+                }
+                blinks.clear();
+                redraw();
+                // the clock looks busy, so nothing starts it again
+                clockRunning.set(true);
+                frameClock.stop();
+            };
+            try{
+                if(SwingUtilities.isEventDispatchThread()) {
+                    flush.run();
+                } else {
+                    SwingUtilities.invokeAndWait(flush);
+                }
+            } catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while closing the canvas", e);
+            } catch (InvocationTargetException e){
+                throw new IOException("could not paint the last frame", e.getCause());
+            }
+        }
+        if(backend instanceof Closeable) {
+            ((Closeable)backend).close();
+        }
     }
 
     /**
@@ -117,98 +1064,380 @@ public class Canvas{
      * @param  newColour   the new colour for the foreground of the Canvas 
      */
     public void setForegroundColor(String colorString){
-        if(colorString.equals("red"))
-            graphic.setColor(Color.red);
-        else if(colorString.equals("black"))
-            graphic.setColor(Color.black);
-        else if(colorString.equals("blue"))
-            graphic.setColor(Color.blue);
-        else if(colorString.equals("yellow"))
-            graphic.setColor(Color.yellow);
-        else if(colorString.equals("green"))
-            graphic.setColor(Color.green);
-        else if(colorString.equals("magenta"))
-            graphic.setColor(Color.magenta);
-        else if(colorString.equals("white"))
-            graphic.setColor(Color.white);
-        else if(colorString.equals("orange"))
-            graphic.setColor(Color.orange);
-        else if(colorString.equals("pink"))
-            graphic.setColor(Color.pink);
-        else if(colorString.equals("cyan"))
-            graphic.setColor(Color.cyan);
-        else if(colorString.equals("gray"))
-            graphic.setColor(Color.gray);
-        else
-            graphic.setColor(Color.black);
+        if(graphic != null) {
+            graphic.setColor(Palette.resolve(colorString));
+        }
     }
 
     /**
      * Wait for a specified number of milliseconds before finishing.
      * This provides an easy way to specify a small delay which can be
      * used when producing animations.
+     * Headless backends do not wait at all.
      * @param  milliseconds  the number 
      */
     public void wait(int milliseconds){
-        try{
-            Thread.sleep(milliseconds);
-        } catch (Exception e){
-            // ignoring exception at the moment
+        backend.pause(milliseconds);
+    }
+
+    /**
+     * Add the area covered by a shape to the damaged region. The shape is
+     * also moved to the tiles of that area, so the tiles always follow
+     * where the shape is shown.
+     */
+    private void damage(ShapeDescription description){
+        int x = description.x + description.offsetX;
+        int y = description.y + description.offsetY;
+        damage.add(x, y, description.width, description.height);
+        if(description.layer == STATIC_LAYER) {
+            staticDamage.add(x, y, description.width, description.height);
+        }
+        int tileX1 = tiles.tileOf(x);
+        int tileY1 = tiles.tileOf(y);
+        int tileX2 = tiles.tileOf(x + description.width - 1);
+        int tileY2 = tiles.tileOf(y + description.height - 1);
+        if(!description.placed || tileX1 != description.tileX1 || tileY1 != description.tileY1
+           || tileX2 != description.tileX2 || tileY2 != description.tileY2) {
+            if(description.placed) {
+                tiles.remove(description, description.tileX1, description.tileY1, 
+                             description.tileX2, description.tileY2);
+            }
+            tiles.add(description, tileX1, tileY1, tileX2, tileY2);
+            description.placed = true;
+            description.tileX1 = tileX1;
+            description.tileY1 = tileY1;
+            description.tileX2 = tileX2;
+            description.tileY2 = tileY2;
         }
     }
 
     /**
-     * Redraw ell shapes currently on the Canvas.
+     * Redraw the damaged region of the Canvas. Only the shapes that
+     * touch that region are painted again, over the cached background.
      */
     private void redraw(){
-        erase();
-        for(Iterator i=objects.iterator(); i.hasNext(); ) {
-                       shapes.get(i.next()).draw(graphic);
+        if(!rasterized) {
+            damage.clear();
+            staticDamage.clear();
+            return;   // nothing to paint for this backend
+        }
+        if(damage.isEmpty()) {
+            return;   // nothing changed since the last frame
+        }
+        if(!staticDamage.isEmpty()) {
+            rasterizeBackground();
+        }
+        // each damaged rectangle is painted and shown on its own
+        for(int i = 0; i < damage.size(); i++) {
+            if(!toImage(damage, i, area)) {
+                continue;   // the change happened outside the view
+            }
+            int x = area.x;
+            int y = area.y;
+            int w = area.width;
+            int h = area.height;
+            graphic.setClip(x, y, w, h);
+            graphic.drawImage(backgroundImage, x, y, x + w, y + h, 
+                              x, y, x + w, y + h, null);
+            paintLayers(graphic, STATIC_LAYER + 1, LAYERS, area);
+            graphic.setClip(null);
+            backend.present(canvasImage, x, y, w, h);
+        }
+        damage.clear();
+    }
+
+    /**
+     * Rasterize the static layer again, only where it changed.
+     */
+    private void rasterizeBackground(){
+        for(int i = 0; i < staticDamage.size(); i++) {
+            if(!toImage(staticDamage, i, area)) {
+                continue;
+            }
+            backgroundGraphic.setClip(area);
+            backgroundGraphic.setColor(backgroundColour);
+            backgroundGraphic.fillRect(area.x, area.y, area.width, area.height);
+            paintLayers(backgroundGraphic, STATIC_LAYER, STATIC_LAYER + 1, area);
+            backgroundGraphic.setClip(null);
         }
-        canvas.repaint();
+        staticDamage.clear();
     }
-       
+
+    /**
+     * Turn a rectangle of a damaged world region into the part of the
+     * image it covers.
+     * @return false if the rectangle is out of the view
+     */
+    private boolean toImage(Region region, int i, java.awt.Rectangle result){
+        // one pixel of margin for the rounding of the scale
+        int x1 = Math.max((int)Math.floor((region.x1[i] - shownViewX) * shownZoom) - 1, 0);
+        int y1 = Math.max((int)Math.floor((region.y1[i] - shownViewY) * shownZoom) - 1, 0);
+        int x2 = Math.min((int)Math.ceil((region.x2[i] - shownViewX) * shownZoom) + 1, width);
+        int y2 = Math.min((int)Math.ceil((region.y2[i] - shownViewY) * shownZoom) + 1, height);
+        result.setBounds(x1, y1, x2 - x1, y2 - y1);
+        return x2 > x1 && y2 > y1;
+    }
+
     /**
-     * Erase the whole canvas. (Does not repaint.)
+     * Paint, in order, the shapes of some layers that touch a part of the
+     * image. The shapes are taken from the tiles under that part only.
      */
-    private void erase(){
-        Color original = graphic.getColor();
-        graphic.setColor(backgroundColour);
-        Dimension size = canvas.getSize();
-        graphic.fill(new java.awt.Rectangle(0, 0, size.width, size.height));
-        graphic.setColor(original);
+    private void paintLayers(Graphics2D target, int fromLayer, int toLayer,
+                             java.awt.Rectangle part){
+        int x = (int)Math.floor(shownViewX + part.x / shownZoom);
+        int y = (int)Math.floor(shownViewY + part.y / shownZoom);
+        int w = (int)Math.ceil(shownViewX + (part.x + part.width) / shownZoom) - x;
+        int h = (int)Math.ceil(shownViewY + (part.y + part.height) / shownZoom) - y;
+        findIn(x, y, w, h, fromLayer, toLayer);
+        target.setTransform(viewTransform);
+        for(int i = 0; i < found.size(); i++) {
+            found.get(i).draw(target);
+        }
+        target.setTransform(identity);
     }
 
+    /**
+     * Leave in the found list, in paint order, the shapes of some layers
+     * whose painted area touches a world rectangle. Render loop only.
+     */
+    private void findIn(int x, int y, int w, int h, int fromLayer, int toLayer){
+        found.clear();
+        tiles.collect(tiles.tileOf(x), tiles.tileOf(y), 
+                      tiles.tileOf(x + w - 1), tiles.tileOf(y + h - 1), found);
+        // a shape on several tiles is found several times: keep one
+        findStamp++;
+        int count = 0;
+        for(int i = 0; i < found.size(); i++) {
+            ShapeDescription description = found.get(i);
+            if(description.stamp != findStamp && description.layer >= fromLayer 
+               && description.layer < toLayer && description.intersects(x, y, w, h)) {
+                description.stamp = findStamp;
+                found.set(count++, description);
+            }
+        }
+        while(found.size() > count) {
+            found.remove(found.size() - 1);
+        }
+        found.sort(PAINT_ORDER);
+    }
 
     /************************************************************************
-     * Inner class CanvasPane - the actual canvas component contained in the
-     * Canvas frame. This is essentially a JPanel with added capability to
-     * refresh the image drawn on it.
+     * Inner class Region - a few disjoint rectangles that cover every area
+     * added to them (x1,y1 inclusive; x2,y2 exclusive). An area that
+     * overlaps a rectangle is merged into it, so changes far apart are
+     * painted apart; past MAX_RECTANGLES the region becomes the one
+     * rectangle around everything.
      */
-    private class CanvasPane extends JPanel{
-        public void paint(Graphics g){
-            g.drawImage(canvasImage, 0, 0, null);
+    private static class Region{
+        private static final int MAX_RECTANGLES = 8;
+
+        private final int[] x1 = new int[MAX_RECTANGLES];
+        private final int[] y1 = new int[MAX_RECTANGLES];
+        private final int[] x2 = new int[MAX_RECTANGLES];
+        private final int[] y2 = new int[MAX_RECTANGLES];
+        private int size;
+
+        public void add(int x, int y, int w, int h){
+            int ax1 = x;
+            int ay1 = y;
+            int ax2 = x + w;
+            int ay2 = y + h;
+            // merging may reach other rectangles: repeat until none overlaps
+            int i = 0;
+            while(i < size) {
+                if(ax1 < x2[i] && x1[i] < ax2 && ay1 < y2[i] && y1[i] < ay2) {
+                    ax1 = Math.min(ax1, x1[i]);
+                    ay1 = Math.min(ay1, y1[i]);
+                    ax2 = Math.max(ax2, x2[i]);
+                    ay2 = Math.max(ay2, y2[i]);
+                    remove(i);
+                    i = 0;
+                } else {
+                    i++;
+                }
+            }
+            if(size == MAX_RECTANGLES) {
+                // too many pieces: the rectangle around all of them
+                for(i = 0; i < size; i++) {
+                    ax1 = Math.min(ax1, x1[i]);
+                    ay1 = Math.min(ay1, y1[i]);
+                    ax2 = Math.max(ax2, x2[i]);
+                    ay2 = Math.max(ay2, y2[i]);
+                }
+                size = 0;
+            }
+            x1[size] = ax1;
+            y1[size] = ay1;
+            x2[size] = ax2;
+            y2[size] = ay2;
+            size++;
+        }
+
+        private void remove(int i){
+            size--;
+            x1[i] = x1[size];
+            y1[i] = y1[size];
+            x2[i] = x2[size];
+            y2[i] = y2[size];
+        }
+
+        public int size(){
+            return size;
+        }
+
+        public boolean isEmpty(){
+            return size == 0;
+        }
+
+        public void clear(){
+            size = 0;
         }
     }
-    
+
     /************************************************************************
-     * Inner class CanvasPane - the actual canvas component contained in the
-     * Canvas frame. This is essentially a JPanel with added capability to
-     * refresh the image drawn on it.
+     * Inner class Command - one change published to the render loop. The
+     * commands are the reused slots of the command ring: a producer fills
+     * one and the render loop clears it once applied. The frame of
+     * rectangular shapes is copied, so the shape may change its own
+     * geometry right after publishing.
      */
-    private class ShapeDescription{
+    private static class Command{
+        private static final int DRAW = 0;
+        private static final int ANIMATE = 1;
+        private static final int ERASE = 2;
+        private static final int BEGIN = 3;
+        private static final int COMMIT = 4;
+        private static final int VIEW = 5;
+        private static final int QUERY = 6;
+        private static final int BLINK = 7;   // color: flash, layer: times
+
+        private int kind;
+        private Object referenceObject;
+        private Color color;
         private java.awt.Shape shape;
-        private String colorString;
+        private int layer;
+        private boolean rectangular;
+        private double frameX, frameY, frameWidth, frameHeight;
+        private Runnable query;
 
-        public ShapeDescription(java.awt.Shape shape, String color){
+        public void set(int kind, Object referenceObject, Color color, 
+                        java.awt.Shape shape, int layer){
+            this.kind = kind;
+            this.referenceObject = referenceObject;
+            this.color = color;
             this.shape = shape;
-            colorString = color;
+            this.layer = layer;
+            rectangular = shape instanceof RectangularShape;
+            if(rectangular) {
+                RectangularShape frame = (RectangularShape)shape;
+                frameX = frame.getX();
+                frameY = frame.getY();
+                frameWidth = frame.getWidth();
+                frameHeight = frame.getHeight();
+            }
+        }
+
+        public void setView(int kind, double x, double y, double zoom){
+            this.kind = kind;
+            frameX = x;
+            frameY = y;
+            frameWidth = zoom;
+        }
+
+        public void setQuery(Runnable query){
+            kind = QUERY;
+            this.query = query;
+        }
+
+        /**
+         * Drop the references of an applied command, so the slot does
+         * not keep shapes or answers alive.
+         */
+        public void clear(){
+            referenceObject = null;
+            color = null;
+            shape = null;
+            rectangular = false;
+            query = null;
+        }
+    }
+
+    /************************************************************************
+     * Inner class ShapeDescription - what the canvas knows about one shape:
+     * its geometry, its color, its painted area, its place in the paint
+     * order of its layer and the tiles it is shown on.
+     */
+    private class ShapeDescription{
+        private Object referenceObject;
+        private java.awt.Shape shape;
+        private Color color;
+        // painted area, one pixel larger than the shape for its outline
+        private int x, y, width, height;
+        private int layer;
+        private long order;
+        private boolean isNew;
+        private boolean moved;
+        // animated move: the shape is shown shifted by the offset, which
+        // goes from the start offset down to zero
+        private boolean tweening;
+        private int offsetX, offsetY;
+        private int startOffsetX, startOffsetY;
+        private long tweenStart;
+        // blink: shown in the flash color while flashOn, for the given
+        // number of flashes counted from the start
+        private boolean blinking;
+        private boolean flashOn;
+        private Color flash;
+        private int flashes;
+        private long blinkStart;
+        // tiles covered by the shown area (bounds inclusive)
+        private boolean placed;
+        private int tileX1, tileY1, tileX2, tileY2;
+        private int stamp;
+
+        public void set(Command command){
+            color = command.color;
+            int left, top, right, bottom;
+            if(command.rectangular) {
+                // copy the frame into our own geometry: no allocation once
+                // the description exists, and the shape may change its own
+                if(shape == null || shape.getClass() != command.shape.getClass()) {
+                    shape = (RectangularShape)((RectangularShape)command.shape).clone();
+                }
+                ((RectangularShape)shape).setFrame(command.frameX, command.frameY, 
+                                                   command.frameWidth, command.frameHeight);
+                left = (int)Math.floor(command.frameX);
+                top = (int)Math.floor(command.frameY);
+                right = (int)Math.ceil(command.frameX + command.frameWidth);
+                bottom = (int)Math.ceil(command.frameY + command.frameHeight);
+            } else {
+                shape = command.shape;
+                java.awt.Rectangle bounds = shape.getBounds();
+                left = bounds.x;
+                top = bounds.y;
+                right = bounds.x + bounds.width;
+                bottom = bounds.y + bounds.height;
+            }
+            moved = left != x || top != y;
+            x = left;
+            y = top;
+            width = right - left + 1;
+            height = bottom - top + 1;
+        }
+
+        public boolean intersects(int rx, int ry, int rw, int rh){
+            int sx = x + offsetX;
+            int sy = y + offsetY;
+            return sx < rx + rw && rx < sx + width 
+                && sy < ry + rh && ry < sy + height;
         }
 
         public void draw(Graphics2D graphic){
-            setForegroundColor(colorString);
+            graphic.setColor(blinking && flashOn ? flash : color);
+            graphic.translate(offsetX, offsetY);
             graphic.draw(shape);
             graphic.fill(shape);
+            graphic.translate(-offsetX, -offsetY);
         }
     }
 
@@ -14,13 +14,25 @@ public class Circle extends Shape {
     public static final double PI = 3.1416;
     
     private int diameter;
+    private Ellipse2D.Double geometry;  // reused on every draw
 
     public Circle() {
         diameter = 30;
         xPosition = 20;
         yPosition = 15;
         color = "blue";
+        paint = Palette.resolve(color);
         isVisible = false;
+        geometry = new Ellipse2D.Double();
+    }
+
+    /**
+     * Create a circle that draws itself on the given canvas
+     * (null to draw nothing, see Canvas.none).
+     */
+    public Circle(Canvas canvas) {
+        this();
+        this.canvas = canvas != null ? canvas : Canvas.none();
     }
   
     @Override
@@ -38,73 +50,54 @@ public class Circle extends Shape {
     @Override
     protected void draw() {
         if(isVisible) {
-            Canvas canvas = Canvas.getCanvas();
-            canvas.draw(this, color, 
-                new Ellipse2D.Double(xPosition, yPosition, 
-                diameter, diameter));
-            canvas.wait(10);
+            geometry.setFrame(xPosition, yPosition, diameter, diameter);
+            getCanvas().draw(this, paint, geometry, layer);
+        }
+    }
+
+    @Override
+    protected void animate() {
+        if(isVisible) {
+            geometry.setFrame(xPosition, yPosition, diameter, diameter);
+            getCanvas().animate(this, paint, geometry, layer);
         }
     }
 
     @Override
     protected void erase() {
         if(isVisible) {
-            Canvas canvas = Canvas.getCanvas();
-            canvas.erase(this);
+            getCanvas().erase(this);
         }
     }
 
     @Override
     public void moveHorizontal(int distance) {
-        erase();
         xPosition += distance;
         draw();
     }
 
     @Override
     public void moveVertical(int distance) {
-        erase();
         yPosition += distance;
         draw();
     }
 
     @Override
     public void slowMoveHorizontal(int distance) {
-        int delta;
-
-        if(distance < 0) {
-            delta = -1;
-            distance = -distance;
-        } else {
-            delta = 1;
-        }
-
-        for(int i = 0; i < distance; i++) {
-            xPosition += delta;
-            draw();
-        }
+        xPosition += distance;
+        animate();
     }
 
     @Override
     public void slowMoveVertical(int distance) {
-        int delta;
-
-        if(distance < 0) {
-            delta = -1;
-            distance = -distance;
-        } else {
-            delta = 1;
-        }
-
-        for(int i = 0; i < distance; i++) {
-            yPosition += delta;
-            draw();
-        }
+        yPosition += distance;
+        animate();
     }
 
     @Override
     public void changeColor(String newColor) {
         color = newColor;
+        paint = Palette.resolve(newColor);
         draw();
     }
 
@@ -113,7 +106,6 @@ public class Circle extends Shape {
      * @param newDiameter the new size (in pixels). Size must be >=0.
      */
     public void changeSize(int newDiameter) {
-        erase();
         diameter = newDiameter;
         draw();
     }
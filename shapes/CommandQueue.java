@@ -0,0 +1,145 @@
+package shapes;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * A bounded lock-free queue with many producers and one consumer, whose
+ * items are reused. The queue is a ring of slots; each slot holds an item
+ * made once by the factory, the first time the slot is used. Any thread
+ * may claim a slot, fill its item and publish it; only one thread at a
+ * time may take the published items (for a Canvas, the render loop).
+ * Items published by one thread are taken in the order that thread
+ * claimed their slots.
+ *
+ * Every slot has a sequence number that tells whose turn it is: a slot
+ * at position p is free for the producer that claims p when its sequence
+ * is p, holds a published item when it is p + 1, and is free again for
+ * the next lap when the consumer sets it to p + capacity. A producer
+ * claims a position with one compare-and-set on the tail; it never waits,
+ * but the claim fails when the ring is full.
+ *
+ * @author Beltrán-Ducuara
+ * @version 2025-2
+ */
+public class CommandQueue<E> {
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final Supplier<? extends E> factory;
+    // the producer side: the next position to claim
+    private final AtomicLong tail;
+    // the consumer side: the next position to take
+    private volatile long head;
+
+    /**
+     * Create an empty queue.
+     * @param capacity  how many slots the ring has, a power of two
+     * @param factory   makes the item of a slot the first time it is used
+     */
+    public CommandQueue(int capacity, Supplier<? extends E> factory){
+        if(capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        items = new Object[capacity];
+        sequences = new AtomicLongArray(capacity);
+        for(int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        mask = capacity - 1;
+        this.factory = factory;
+        tail = new AtomicLong();
+    }
+
+    /**
+     * Claim the next slot of the ring. Safe to call from any thread. The
+     * slot must then be filled (see slot) and published.
+     * @return the position of the slot, or -1 if the ring is full
+     */
+    public long claim(){
+        long position = tail.get();
+        while(true) {
+            long difference = sequences.get((int)position & mask) - position;
+            if(difference == 0) {
+                if(tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = tail.get();
+            } else if(difference < 0) {
+                return -1;      // the slot is a lap behind: the ring is full
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * The item of a claimed slot, to be filled by the producer that
+     * claimed it.
+     * @param position  the position returned by claim
+     * @return the item of the slot
+     */
+    @SuppressWarnings("unchecked")
+    public E slot(long position){
+        int index = (int)position & mask;
+        Object item = items[index];
+        if(item == null) {
+            // only the owner of the slot writes it; publishing makes it
+            // visible to the consumer
+            item = factory.get();
+            items[index] = item;
+        }
+        return (E)item;
+    }
+
+    /**
+     * Hand a filled slot to the consumer.
+     * @param position  the position returned by claim
+     */
+    public void publish(long position){
+        sequences.set((int)position & mask, position + 1);
+    }
+
+    /**
+     * Look at the item at the front of the queue, leaving it there. Only
+     * the consumer thread may call this method; once done with the item
+     * it gives the slot back with release.
+     * @return the item, or null if nothing is published at the front
+     */
+    @SuppressWarnings("unchecked")
+    public E peek(){
+        long position = head;
+        int index = (int)position & mask;
+        if(sequences.get(index) != position + 1) {
+            return null;
+        }
+        return (E)items[index];
+    }
+
+    /**
+     * Give the slot at the front of the queue back to the producers. Only
+     * the consumer thread may call this method, after peek found an item.
+     */
+    public void release(){
+        long position = head;
+        sequences.set((int)position & mask, position + mask + 1);
+        head = position + 1;
+    }
+
+    /**
+     * Tell if there is nothing claimed and not yet released. Any thread
+     * may call this method; the answer may be old by the time it is used.
+     * @return true if the queue is empty
+     */
+    public boolean isEmpty(){
+        return tail.get() == head;
+    }
+
+    /**
+     * @return how many slots the ring has
+     */
+    public int capacity(){
+        return mask + 1;
+    }
+}
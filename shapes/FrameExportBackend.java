@@ -0,0 +1,339 @@
+package shapes;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+import javax.imageio.ImageIO;
+
+/**
+ * A headless backend that writes the canvas as a sequence of PNG files
+ * in a directory, to make visual reports of simulations on machines
+ * without a display.
+ *
+ * The sequence has a fixed frame rate, so it can be played back at the
+ * speed of the simulation: from the first image shown until close(), a
+ * frame clock takes one frame per frame period, with the image shown at
+ * the end of that period. Frame n is written as frame-n.png (six digits,
+ * frame-000000.png first) only when the image changed; a period in which
+ * nothing changed just repeats the file before it, and costs no work.
+ * The file frames.txt lists each PNG file with how many periods it is
+ * shown, one per line ("frame-000000.png 3"), so a player gets back every
+ * frame of the sequence.
+ *
+ * Images shown are copied into one of a few spare images and handed to a
+ * background encoder thread; nobody ever waits for the encoder. When it
+ * falls behind and no spare image is left, the frame is counted as
+ * dropped and becomes a repeat of the previous one, so the sequence keeps
+ * its timing.
+ *
+ * Call close() at the end to write the last frame and wait for the
+ * encoder to finish. close() never needs the Swing EDT, so it may run
+ * from a shutdown hook.
+ *
+ * @author Beltrán-Ducuara
+ * @version 2025-2
+ */
+public class FrameExportBackend implements RenderBackend, Closeable {
+    private final File directory;
+    private final long frameNanos;
+    private final int capacity;
+    // images free to take a frame, and frames waiting for the encoder
+    private BlockingQueue<Frame> spare;
+    private BlockingQueue<Frame> frames;
+    private Thread encoder;
+    private Thread clock;
+    // guarded by this: the image shown last, whether it changed since the
+    // last frame taken, when the first image was shown, whether a frame
+    // was taken yet, and the next frame
+    private BufferedImage latest;
+    private Graphics2D latestGraphic;
+    private boolean changed;
+    private boolean started;
+    private boolean taken;
+    private long startTime;
+    private long next;
+    private volatile boolean closed;
+    private volatile int framesWritten;
+    private volatile int imagesWritten;
+    private volatile int framesDropped;
+    private volatile IOException failure;
+
+    /**
+     * A frame taken for the encoder: a spare image and the number of the
+     * frame it holds. The last one has no image, and the number of frames
+     * of the sequence.
+     */
+    private static class Frame {
+        final BufferedImage image;
+        long number;
+
+        Frame(BufferedImage image, long number){
+            this.image = image;
+            this.number = number;
+        }
+    }
+
+    /**
+     * Create a backend that writes up to 8 frames behind the canvas.
+     * @param directory        where to write the PNG files
+     * @param framesPerSecond  frames written per second
+     */
+    public FrameExportBackend(File directory, int framesPerSecond){
+        this(directory, framesPerSecond, 8);
+    }
+
+    /**
+     * Create a backend.
+     * @param directory        where to write the PNG files
+     * @param framesPerSecond  frames written per second
+     * @param capacity         frames that may wait for the encoder
+     */
+    public FrameExportBackend(File directory, int framesPerSecond, int capacity){
+        if(framesPerSecond < 1 || capacity < 1) {
+            throw new IllegalArgumentException("frame rate and capacity must be positive");
+        }
+        this.directory = directory;
+        this.frameNanos = 1000000000L / framesPerSecond;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean isRasterized(){
+        return true;
+    }
+
+    @Override
+    public void open(String title, int width, int height){
+        directory.mkdirs();
+        spare = new ArrayBlockingQueue<Frame>(capacity);
+        // only the spare images and the end of the sequence ever wait here
+        frames = new ArrayBlockingQueue<Frame>(capacity + 1);
+        for(int i = 0; i < capacity; i++) {
+            spare.add(new Frame(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), 0));
+        }
+        latest = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        latestGraphic = latest.createGraphics();
+        encoder = new Thread(this::encode, "frame encoder");
+        encoder.setDaemon(true);
+        encoder.start();
+        clock = new Thread(this::tick, "frame export clock");
+        clock.setDaemon(true);
+        clock.start();
+    }
+
+    @Override
+    public void setVisible(boolean visible){
+    }
+
+    /**
+     * Keep the changed region as part of the image shown; the frame clock
+     * takes it at the end of the current frame period.
+     */
+    @Override
+    public synchronized void present(BufferedImage image, int x, int y, int width, int height){
+        if(closed) {
+            return;
+        }
+        if(!started) {
+            // the first image is copied whole and starts the sequence
+            latestGraphic.drawImage(image, 0, 0, null);
+            started = true;
+            startTime = System.nanoTime();
+            LockSupport.unpark(clock);
+        } else {
+            latestGraphic.drawImage(image, x, y, x + width, y + height,
+                                    x, y, x + width, y + height, null);
+        }
+        changed = true;
+    }
+
+    /**
+     * The export follows the time of the simulation, so pauses are real.
+     */
+    @Override
+    public void pause(int milliseconds){
+        try{
+            Thread.sleep(milliseconds);
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return how many frames of the sequence are in files so far,
+     *         counting the repeats of each file
+     */
+    public int getFramesWritten(){
+        return framesWritten;
+    }
+
+    /**
+     * @return how many PNG files were written so far
+     */
+    public int getImagesWritten(){
+        return imagesWritten;
+    }
+
+    /**
+     * @return how many frames became repeats because the encoder was
+     *         behind
+     */
+    public int getFramesDropped(){
+        return framesDropped;
+    }
+
+    /**
+     * Stop the frame clock, write the last image shown if it was not
+     * written yet, and wait until every frame taken is in its file. The
+     * sequence lasts until now even if the frame clock was late. The
+     * last frame is never dropped: it waits for a spare image.
+     * @throws IOException if a frame could not be written
+     */
+    @Override
+    public void close() throws IOException{
+        synchronized(this) {
+            if(closed || encoder == null) {
+                return;
+            }
+            closed = true;
+        }
+        try{
+            LockSupport.unpark(clock);
+            clock.join();
+            synchronized(this) {
+                if(started) {
+                    // periods the clock thread was too late to take repeat
+                    // the frame before them, as in tick
+                    next = Math.max(next, (System.nanoTime() - startTime) / frameNanos);
+                }
+                if(changed) {
+                    copy(spare.take());
+                }
+                frames.put(new Frame(null, next));
+            }
+            encoder.join();
+        } catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while writing frames", e);
+        }
+        if(failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * The frame clock thread: at the end of every frame period, take the
+     * image shown if it changed. Periods missed while the thread was late
+     * just repeat the frame before them.
+     */
+    private void tick(){
+        while(!closed) {
+            long wait;
+            synchronized(this) {
+                wait = started ? startTime + (next + 1) * frameNanos - System.nanoTime()
+                               : Long.MAX_VALUE;
+                if(wait <= 0) {
+                    next = Math.max(next, (System.nanoTime() - startTime) / frameNanos - 1);
+                    take();
+                    continue;
+                }
+            }
+            LockSupport.parkNanos(this, wait);
+        }
+    }
+
+    /**
+     * Take the image shown as the next frame, if it changed. Guarded by
+     * this.
+     */
+    private void take(){
+        if(!changed) {
+            next++;
+            return;
+        }
+        Frame frame = spare.poll();
+        if(frame == null) {
+            framesDropped++;
+            next++;
+            return;
+        }
+        copy(frame);
+    }
+
+    /**
+     * Copy the image shown into a spare image, as the next frame, for the
+     * encoder. Guarded by this.
+     */
+    private void copy(Frame frame){
+        Graphics2D graphic = frame.image.createGraphics();
+        graphic.drawImage(latest, 0, 0, null);
+        graphic.dispose();
+        changed = false;
+        // the first frame shows from the start of the sequence, even if the
+        // clock thread was late to take it
+        frame.number = taken ? next : 0;
+        taken = true;
+        next++;
+        // never full: it has room for every spare image
+        frames.add(frame);
+    }
+
+    /**
+     * The encoder thread: write each frame taken, in order, then give its
+     * image back. The index line of a file is written once the next frame
+     * tells how long the file is shown.
+     */
+    private void encode(){
+        Writer index = null;
+        String previous = null;   // the last file written, and its frame
+        long previousNumber = 0;
+        try{
+            while(true) {
+                Frame frame = frames.take();
+                if(failure == null) {
+                    try{
+                        if(previous != null) {
+                            index.write(previous + " " + (frame.number - previousNumber) + "\n");
+                            framesWritten = (int) frame.number;
+                        }
+                        if(frame.image != null) {
+                            previous = String.format("frame-%06d.png", frame.number);
+                            previousNumber = frame.number;
+                            ImageIO.write(frame.image, "png", new File(directory, previous));
+                            imagesWritten++;
+                            framesWritten = (int) frame.number + 1;
+                            if(index == null) {
+                                index = Files.newBufferedWriter(new File(directory, "frames.txt").toPath());
+                            }
+                        }
+                    } catch (IOException e){
+                        failure = e;   // reported by close()
+                    }
+                }
+                if(frame.image == null) {
+                    return;
+                }
+                spare.add(frame);
+            }
+        } catch (InterruptedException e){
+            // the encoder was stopped
+        } finally {
+            if(index != null) {
+                try{
+                    index.close();
+                } catch (IOException e){
+                    if(failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package shapes;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * A backend that shows nothing. It is used on machines without a display
+ * (headless) and for simulations where only the model matters: the canvas
+ * keeps no image, paints nothing and never sleeps between frames.
+ *
+ * @author Beltrán-Ducuara
+ * @version 2025-2
+ */
+public class NullBackend implements RenderBackend {
+
+    @Override
+    public boolean isRasterized(){
+        return false;
+    }
+
+    @Override
+    public void open(String title, int width, int height){
+    }
+
+    @Override
+    public void setVisible(boolean visible){
+    }
+
+    @Override
+    public void present(BufferedImage image, int x, int y, int width, int height){
+    }
+
+    @Override
+    public void pause(int milliseconds){
+    }
+}
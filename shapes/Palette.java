@@ -0,0 +1,96 @@
+package shapes;
+
+import java.awt.Color;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The palette turns color names into java.awt.Color values.
+ * Shapes resolve their color once, when it changes, so painting a shape
+ * never compares strings.
+ *
+ * Known names are "red", "black", "blue", "yellow", "green", "magenta",
+ * "white", "orange", "pink", "cyan" and "gray". Any other color can be
+ * given in hexadecimal RGB as "#rrggbb" (exactly six hexadecimal
+ * digits); unknown names are black. Only the known names are kept: a
+ * hexadecimal color is parsed each time, which is cheap, so a program
+ * that makes up many colors does not fill memory with them.
+ *
+ * @author Beltrán-Ducuara
+ * @version 2025-2
+ */
+public final class Palette {
+    // the known names; only written while the class is initialized
+    private static final Map<String, Color> COLORS = new HashMap<String, Color>();
+
+    static {
+        COLORS.put("red", Color.red);
+        COLORS.put("black", Color.black);
+        COLORS.put("blue", Color.blue);
+        COLORS.put("yellow", Color.yellow);
+        COLORS.put("green", Color.green);
+        COLORS.put("magenta", Color.magenta);
+        COLORS.put("white", Color.white);
+        COLORS.put("orange", Color.orange);
+        COLORS.put("pink", Color.pink);
+        COLORS.put("cyan", Color.cyan);
+        COLORS.put("gray", Color.gray);
+    }
+
+    private Palette(){
+    }
+
+    /**
+     * Find the color for a name.
+     * @param  name  a known color name or "#rrggbb"
+     * @return the color; black when the name is not known
+     */
+    public static Color resolve(String name){
+        Color color = COLORS.get(name);
+        if(color != null) {
+            return color;
+        }
+        if(name.length() != 7 || name.charAt(0) != '#') {
+            return Color.black;
+        }
+        int rgb = 0;
+        for(int i = 1; i < 7; i++) {
+            int digit = hexDigit(name.charAt(i));
+            if(digit < 0) {
+                return Color.black;   // not a valid RGB value, like unknown names
+            }
+            rgb = rgb * 16 + digit;
+        }
+        return new Color(rgb);
+    }
+
+    /**
+     * The value of an ASCII hexadecimal digit. Signs and the digits of
+     * other scripts, which Integer.parseInt accepts, are not digits here.
+     * @return the value, or -1 if c is not a hexadecimal digit
+     */
+    private static int hexDigit(char c){
+        if(c >= '0' && c <= '9') {
+            return c - '0';
+        } else if(c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        } else if(c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * Find a name for a color.
+     * @param  color  any color
+     * @return its palette name, or "#rrggbb" when it has no name
+     */
+    public static String nameOf(Color color){
+        for(Map.Entry<String, Color> entry : COLORS.entrySet()) {
+            if(entry.getValue().equals(color)) {
+                return entry.getKey();
+            }
+        }
+        return String.format("#%06x", color.getRGB() & 0xffffff);
+    }
+}
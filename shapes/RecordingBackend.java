@@ -0,0 +1,93 @@
+package shapes;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A headless backend that remembers what was drawn and erased.
+ * Each operation is kept as a line of text like "draw red 10,20,40,30"
+ * or "erase", which is useful to check the drawing of a simulation
+ * without opening a window.
+ *
+ * @author Beltrán-Ducuara
+ * @version 2025-2
+ */
+public class RecordingBackend implements RenderBackend {
+    private List<String> operations;
+    private int drawCount;
+    private int eraseCount;
+
+    /**
+     * Create an empty recording.
+     */
+    public RecordingBackend(){
+        operations = new ArrayList<String>();
+    }
+
+    @Override
+    public boolean isRasterized(){
+        return false;
+    }
+
+    @Override
+    public void open(String title, int width, int height){
+    }
+
+    @Override
+    public void setVisible(boolean visible){
+    }
+
+    @Override
+    public void present(BufferedImage image, int x, int y, int width, int height){
+    }
+
+    @Override
+    public void pause(int milliseconds){
+    }
+
+    @Override
+    public synchronized void shapeDrawn(Object referenceObject, Color color, java.awt.Shape shape){
+        java.awt.Rectangle bounds = shape.getBounds();
+        operations.add("draw " + Palette.nameOf(color) + " " + bounds.x + "," + bounds.y + ","
+                       + bounds.width + "," + bounds.height);
+        drawCount++;
+    }
+
+    @Override
+    public synchronized void shapeErased(Object referenceObject){
+        operations.add("erase");
+        eraseCount++;
+    }
+
+    /**
+     * @return a copy of the operations recorded so far, in order
+     */
+    public synchronized List<String> getOperations(){
+        return new ArrayList<String>(operations);
+    }
+
+    /**
+     * @return how many shapes were drawn
+     */
+    public synchronized int getDrawCount(){
+        return drawCount;
+    }
+
+    /**
+     * @return how many shapes were erased
+     */
+    public synchronized int getEraseCount(){
+        return eraseCount;
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public synchronized void clear(){
+        operations.clear();
+        drawCount = 0;
+        eraseCount = 0;
+    }
+}
@@ -12,6 +12,7 @@ public class Rectangle extends Shape {
     
     private int height;
     private int width;
+    private java.awt.Rectangle geometry;  // reused on every draw
 
     public Rectangle() {
         height = 30;
@@ -19,7 +20,18 @@ public class Rectangle extends Shape {
         xPosition = 70;
         yPosition = 15;
         color = "magenta";
+        paint = Palette.resolve(color);
         isVisible = false;
+        geometry = new java.awt.Rectangle();
+    }
+
+    /**
+     * Create a rectangle that draws itself on the given canvas
+     * (null to draw nothing, see Canvas.none).
+     */
+    public Rectangle(Canvas canvas) {
+        this();
+        this.canvas = canvas != null ? canvas : Canvas.none();
     }
 
     @Override
@@ -36,60 +48,36 @@ public class Rectangle extends Shape {
 
     @Override
     public void moveHorizontal(int distance) {
-        erase();
         xPosition += distance;
         draw();
     }
 
     @Override
     public void moveVertical(int distance) {
-        erase();
         yPosition += distance;
         draw();
     }
 
     @Override
     public void slowMoveHorizontal(int distance) {
-        int delta;
-
-        if(distance < 0) {
-            delta = -1;
-            distance = -distance;
-        } else {
-            delta = 1;
-        }
-
-        for(int i = 0; i < distance; i++) {
-            xPosition += delta;
-            draw();
-        }
+        xPosition += distance;
+        animate();
     }
 
     @Override
     public void slowMoveVertical(int distance) {
-        int delta;
-
-        if(distance < 0) {
-            delta = -1;
-            distance = -distance;
-        } else {
-            delta = 1;
-        }
-
-        for(int i = 0; i < distance; i++) {
-            yPosition += delta;
-            draw();
-        }
+        yPosition += distance;
+        animate();
     }
 
     @Override
     public void changeColor(String newColor) {
         color = newColor;
+        paint = Palette.resolve(newColor);
         draw();
     }
 
     public void changeSize(int newHeight, int newWidth) {
-        erase();
         height = newHeight;
         width = newWidth;
         draw();
@@ -98,19 +86,23 @@ public class Rectangle extends Shape {
     @Override
     protected void draw() {
         if(isVisible) {
-            Canvas canvas = Canvas.getCanvas();
-            canvas.draw(this, color,
-                new java.awt.Rectangle(xPosition, yPosition, 
-                                       width, height));
-            canvas.wait(10);
+            geometry.setBounds(xPosition, yPosition, width, height);
+            getCanvas().draw(this, paint, geometry, layer);
+        }
+    }
+
+    @Override
+    protected void animate() {
+        if(isVisible) {
+            geometry.setBounds(xPosition, yPosition, width, height);
+            getCanvas().animate(this, paint, geometry, layer);
         }
     }
 
     @Override
     protected void erase() {
         if(isVisible) {
-            Canvas canvas = Canvas.getCanvas();
-            canvas.erase(this);
+            getCanvas().erase(this);
         }
     }
 }
@@ -0,0 +1,76 @@
+package shapes;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+
+/**
+ * A RenderBackend is the place where a Canvas sends its drawing.
+ * The Canvas keeps the scene (which shapes exist, their colors and
+ * their order) and the backend decides what to do with it: show it
+ * in a window, record it, or simply ignore it.
+ *
+ * The backend used by the canvas singleton is chosen at startup with the
+ * system property "shapes.backend" ("swing", "none", "recording" or
+ * "frames", which writes PNG files in the directory named by the
+ * "shapes.frames" property) or with Canvas.useBackend(RenderBackend).
+ *
+ * @author Beltrán-Ducuara
+ * @version 2025-2
+ */
+public interface RenderBackend {
+
+    /**
+     * Tell if the canvas has to keep a raster image of the scene for this
+     * backend. Backends that answer false never receive present() calls,
+     * so the canvas does no AWT painting work for them.
+     * @return true if the backend shows images of the scene
+     */
+    boolean isRasterized();
+
+    /**
+     * Prepare the backend to show a scene of the given size.
+     * @param title   title of the scene
+     * @param width   width of the scene in pixels
+     * @param height  height of the scene in pixels
+     */
+    void open(String title, int width, int height);
+
+    /**
+     * Show or hide the scene.
+     * @param visible  true to show the scene
+     */
+    void setVisible(boolean visible);
+
+    /**
+     * Show the current image of the scene. Only the given region changed
+     * since the last call, so backends may refresh just that part.
+     * @param image   the raster image kept by the canvas
+     * @param x       left side of the changed region
+     * @param y       top side of the changed region
+     * @param width   width of the changed region
+     * @param height  height of the changed region
+     */
+    void present(BufferedImage image, int x, int y, int width, int height);
+
+    /**
+     * Wait between two frames of an animation.
+     * @param milliseconds  the time the animation asks to wait
+     */
+    void pause(int milliseconds);
+
+    /**
+     * Notify that a shape was drawn (or drawn again) on the canvas.
+     * @param referenceObject  the object that identifies the shape
+     * @param color            the color of the shape
+     * @param shape            the geometry of the shape
+     */
+    default void shapeDrawn(Object referenceObject, Color color, java.awt.Shape shape){
+    }
+
+    /**
+     * Notify that a shape was erased from the canvas.
+     * @param referenceObject  the object that identifies the shape
+     */
+    default void shapeErased(Object referenceObject){
+    }
+}
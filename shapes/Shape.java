@@ -11,7 +11,11 @@ public abstract class Shape {
     protected int xPosition;
     protected int yPosition;
     protected String color;
+    protected java.awt.Color paint;  // color ya resuelto con Palette
     protected boolean isVisible;
+    protected int layer = Canvas.DEFAULT_LAYER;
+    protected Object owner;  // lo que la figura representa, para Canvas.shapeAt
+    protected Canvas canvas; // null: se dibuja en el lienzo compartido
     
     /**
      * Hace visible la figura
@@ -36,7 +40,9 @@ public abstract class Shape {
     public abstract void moveVertical(int distance);
     
     /**
-     * Mueve la figura lentamente en horizontal
+     * Mueve la figura lentamente en horizontal.
+     * La posición cambia de inmediato; el canvas anima el movimiento
+     * sin detener a quien llama.
      * @param distance distancia en píxeles
      */
     public abstract void slowMoveHorizontal(int distance);
@@ -58,11 +64,28 @@ public abstract class Shape {
      */
     protected abstract void draw();
     
+    /**
+     * Dibuja la figura en su nueva posición con un movimiento animado
+     */
+    protected abstract void animate();
+    
     /**
      * Borra la figura del canvas
      */
     protected abstract void erase();
     
+    /**
+     * Hace parpadear la figura: se muestra varias veces en otro color y
+     * vuelve al suyo. El canvas hace el parpadeo sin detener a quien llama
+     * @param flashColor color del destello
+     * @param times veces que destella
+     */
+    public void blink(String flashColor, int times) {
+        if (isVisible) {
+            getCanvas().blink(this, Palette.resolve(flashColor), times);
+        }
+    }
+    
     // Métodos comunes
     public void moveRight() {
         moveHorizontal(20);
@@ -87,4 +110,39 @@ public abstract class Shape {
     public String getColor() {
         return color;
     }
+    
+    /**
+     * Cambia la capa en la que se pinta la figura.
+     * Las figuras de capas altas se pintan encima de las de capas bajas.
+     * @param newLayer capa entre 0 y Canvas.LAYERS - 1
+     */
+    public void setLayer(int newLayer) {
+        layer = newLayer;
+        draw();
+    }
+    
+    public int getLayer() {
+        return layer;
+    }
+    
+    /**
+     * Devuelve el lienzo donde se dibuja la figura: el que recibió al
+     * crearse o, si no recibió ninguno, el lienzo compartido
+     */
+    public Canvas getCanvas() {
+        return canvas != null ? canvas : Canvas.getCanvas();
+    }
+    
+    /**
+     * Asocia la figura con el objeto que dibuja (por ejemplo una tienda),
+     * para saber qué objeto hay en un punto con Canvas.shapesAt
+     * @param newOwner objeto representado por la figura
+     */
+    public void setOwner(Object newOwner) {
+        owner = newOwner;
+    }
+    
+    public Object getOwner() {
+        return owner;
+    }
 }
\ No newline at end of file
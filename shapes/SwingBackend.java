@@ -0,0 +1,76 @@
+package shapes;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+
+/**
+ * The classic backend: shows the canvas image in a JFrame window.
+ *
+ * @author Bruce Quig
+ * @author Michael Kolling (mik)
+ * @author Beltrán-Ducuara
+ * @version 2025-2
+ */
+public class SwingBackend implements RenderBackend, Closeable {
+    private JFrame frame;
+    private CanvasPane canvas;
+    private Image canvasImage;
+
+    @Override
+    public boolean isRasterized(){
+        return true;
+    }
+
+    @Override
+    public void open(String title, int width, int height){
+        frame = new JFrame();
+        canvas = new CanvasPane();
+        frame.setContentPane(canvas);
+        frame.setTitle(title);
+        canvas.setPreferredSize(new Dimension(width, height));
+        frame.pack();
+    }
+
+    @Override
+    public void setVisible(boolean visible){
+        frame.setVisible(visible);
+    }
+
+    /**
+     * Close the window.
+     */
+    @Override
+    public void close(){
+        if(frame != null) {
+            SwingUtilities.invokeLater(frame::dispose);
+        }
+    }
+
+    @Override
+    public void present(BufferedImage image, int x, int y, int width, int height){
+        canvasImage = image;
+        canvas.repaint(x, y, width, height);
+    }
+
+    @Override
+    public void pause(int milliseconds){
+        try{
+            Thread.sleep(milliseconds);
+        } catch (Exception e){
+            // ignoring exception at the moment
+        }
+    }
+
+    /************************************************************************
+     * Inner class CanvasPane - the actual canvas component contained in the
+     * Canvas frame. This is essentially a JPanel with added capability to
+     * refresh the image drawn on it.
+     */
+    private class CanvasPane extends JPanel{
+        public void paint(Graphics g){
+            g.drawImage(canvasImage, 0, 0, null);
+        }
+    }
+}
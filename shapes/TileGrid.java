@@ -0,0 +1,200 @@
+package shapes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A grid of square tiles over an unbounded plane. Each item is kept in
+ * every tile its area touches, so the items near a region are found by
+ * looking only at the tiles of that region, whatever the size of the
+ * whole plane. Tiles are kept in a hash table of their coordinates and
+ * only exist while some item is in them.
+ *
+ * The grid does not know the area of its items: callers give the tile
+ * range (see tileOf) when adding and removing them. It is not safe for
+ * use by several threads.
+ *
+ * @author Beltrán-Ducuara
+ * @version 2025-2
+ */
+class TileGrid<T> {
+    private final int tileSize;
+    // open addressing hash table: tile coordinates -> tile
+    private long[] keys;
+    private List<T>[] tiles;
+    private int tileCount;
+
+    /**
+     * Create an empty grid.
+     * @param tileSize  the side of a tile, in pixels
+     */
+    public TileGrid(int tileSize){
+        this.tileSize = tileSize;
+        allocate(64);
+    }
+
+    /**
+     * @param  coordinate  an x or y coordinate, in pixels
+     * @return the tile column or row that holds it
+     */
+    public int tileOf(int coordinate){
+        return Math.floorDiv(coordinate, tileSize);
+    }
+
+    /**
+     * Put an item in every tile of a range (bounds inclusive).
+     */
+    public void add(T item, int tileX1, int tileY1, int tileX2, int tileY2){
+        for(int tx = tileX1; tx <= tileX2; tx++) {
+            for(int ty = tileY1; ty <= tileY2; ty++) {
+                tile(tx, ty, true).add(item);
+            }
+        }
+    }
+
+    /**
+     * Take an item out of every tile of a range (bounds inclusive).
+     */
+    public void remove(T item, int tileX1, int tileY1, int tileX2, int tileY2){
+        for(int tx = tileX1; tx <= tileX2; tx++) {
+            for(int ty = tileY1; ty <= tileY2; ty++) {
+                int i = slotOf(tx, ty);
+                if(i >= 0) {
+                    tiles[i].remove(item);
+                    if(tiles[i].isEmpty()) {
+                        removeAt(i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Add to a list the items of every tile of a range (bounds inclusive).
+     * An item in several of those tiles is added once for each of them.
+     */
+    public void collect(int tileX1, int tileY1, int tileX2, int tileY2, List<T> result){
+        long rangeTiles = ((long)tileX2 - tileX1 + 1) * ((long)tileY2 - tileY1 + 1);
+        if(rangeTiles <= tileCount) {
+            for(int tx = tileX1; tx <= tileX2; tx++) {
+                for(int ty = tileY1; ty <= tileY2; ty++) {
+                    List<T> tile = tile(tx, ty, false);
+                    if(tile != null) {
+                        result.addAll(tile);
+                    }
+                }
+            }
+        } else {
+            // range larger than the grid: look at the existing tiles instead
+            for(int i = 0; i < tiles.length; i++) {
+                if(tiles[i] != null) {
+                    int tx = (int)(keys[i] >> 32);
+                    int ty = (int)keys[i];
+                    if(tx >= tileX1 && tx <= tileX2 && ty >= tileY1 && ty <= tileY2) {
+                        result.addAll(tiles[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Find a tile, creating it when asked to.
+     */
+    private List<T> tile(int tx, int ty, boolean create){
+        long key = key(tx, ty);
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while(tiles[i] != null) {
+            if(keys[i] == key) {
+                return tiles[i];
+            }
+            i = (i + 1) & mask;
+        }
+        if(!create) {
+            return null;
+        }
+        List<T> tile = new ArrayList<T>(4);
+        keys[i] = key;
+        tiles[i] = tile;
+        tileCount++;
+        if(tileCount * 2 > keys.length) {
+            grow();
+        }
+        return tile;
+    }
+
+    /**
+     * @return the slot of a tile in the hash table, or -1 if it does not exist
+     */
+    private int slotOf(int tx, int ty){
+        long key = key(tx, ty);
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while(tiles[i] != null) {
+            if(keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Drop the tile of a slot. The tiles after it in the same run of the
+     * table are shifted back, so that every tile can still be reached
+     * from the slot its hash points to.
+     */
+    private void removeAt(int i){
+        int mask = keys.length - 1;
+        tiles[i] = null;
+        int j = i;
+        while(true) {
+            j = (j + 1) & mask;
+            if(tiles[j] == null) {
+                break;
+            }
+            int home = hash(keys[j]) & mask;
+            // the hole is between the home of this tile and the tile itself
+            if(((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                tiles[i] = tiles[j];
+                tiles[j] = null;
+                i = j;
+            }
+        }
+        tileCount--;
+    }
+
+    private static long key(int tx, int ty){
+        return ((long)tx << 32) | (ty & 0xffffffffL);
+    }
+
+    private static int hash(long key){
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void allocate(int capacity){
+        keys = new long[capacity];
+        tiles = (List<T>[])new List[capacity];
+    }
+
+    private void grow(){
+        long[] oldKeys = keys;
+        List<T>[] oldTiles = tiles;
+        allocate(keys.length * 2);
+        int mask = keys.length - 1;
+        for(int j = 0; j < oldTiles.length; j++) {
+            if(oldTiles[j] != null) {
+                int i = hash(oldKeys[j]) & mask;
+                while(tiles[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                tiles[i] = oldTiles[j];
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package silkRoad;
 
 import java.util.Random;
+import shapes.Canvas;
 
 /**
  * The Autonomous class represents a special type of store
@@ -14,6 +15,30 @@ import java.util.Random;
  */
 public class Autonomous extends Store {
 
+    /**
+     * Creates a new Autonomous store that is not drawn (see addObserver).
+     * 
+     * @param position logical position of the store in the route
+     * @param tenges   amount of money available in the store
+     * @param x        initial X coordinate (ignored, replaced by random)
+     * @param y        initial Y coordinate (ignored, replaced by random)
+     */
+    public Autonomous(int position, int tenges, int x, int y) {
+        super(position, tenges, x, y);
+        moveToRandomPlace();
+    }
+
+    /**
+     * Makes the object of a row of a table (see StoreTable).
+     * The store already has its place.
+     * 
+     * @param table the table of the store
+     * @param row   its row in the table
+     */
+    Autonomous(StoreTable table, int row) {
+        super(table, row);
+    }
+
     /**
      * Creates a new Autonomous store.
      * After being created, the store moves to a random position on the screen.
@@ -25,8 +50,28 @@ public class Autonomous extends Store {
      * @param color    color used to draw the store
      */
     public Autonomous(int position, int tenges, int x, int y, String color) {
-        super(position, tenges, x, y, color);
+        this(position, tenges, x, y, color, Canvas.getCanvas());
+    }
 
+    /**
+     * Creates a new Autonomous store drawn on a given canvas.
+     * 
+     * @param position logical position of the store in the route
+     * @param tenges   amount of money available in the store
+     * @param x        initial X coordinate (ignored, replaced by random)
+     * @param y        initial Y coordinate (ignored, replaced by random)
+     * @param color    color used to draw the store
+     * @param canvas   canvas where the store is drawn (null to draw nothing)
+     */
+    public Autonomous(int position, int tenges, int x, int y, String color, Canvas canvas) {
+        super(position, tenges, x, y, color, canvas);
+        moveToRandomPlace();
+    }
+
+    /**
+     * Moves the store to a random place on the screen.
+     */
+    private void moveToRandomPlace() {
         // The store decides its own random position instead of using the given one
         int randomX = (int)(Math.random() * 600 + 100);
         int randomY = (int)(Math.random() * 400 + 100);
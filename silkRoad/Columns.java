@@ -0,0 +1,285 @@
+package silkRoad;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The Columns class stores the int attributes of the rows of a table
+ * (see StoreTable and RobotTable). The values can live in the Java heap,
+ * in direct memory outside it, or in a file mapped in memory; the tables
+ * work the same with any of them.
+ * 
+ * Outside the heap, rows are kept one after the other in blocks of
+ * ROWS_PER_BLOCK rows, so a table grows by adding blocks and never copies
+ * its rows. A mapped file lets the operating system keep in memory only
+ * the blocks in use. The file starts with a header that keeps the number
+ * of rows and of columns, so a table can be opened again from it.
+ * 
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+abstract class Columns implements Closeable {
+    /** Rows in each block of memory outside the heap. */
+    static final int ROWS_PER_BLOCK = 1 << 14;
+    /** Bytes of the header of a file: rows, then columns. */
+    static final int HEADER_BYTES = 8;
+
+    protected final int columns;
+
+    protected Columns(int columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Creates columns kept in int arrays of the heap.
+     * @param columns number of columns
+     */
+    static Columns onHeap(int columns) {
+        return new HeapColumns(columns);
+    }
+
+    /**
+     * Creates columns kept in direct memory, outside the heap.
+     * @param columns number of columns
+     */
+    static Columns offHeap(int columns) {
+        return new BlockColumns(columns, null);
+    }
+
+    /**
+     * Creates columns kept in a file mapped in memory. The file grows
+     * with the table. A file written before by columns like these is
+     * opened with its rows (see rows); it stays open until close.
+     * @param columns number of columns
+     * @param file    the file, created if it does not exist
+     * @throws IOException if the file can not be opened, or keeps other
+     *         columns
+     */
+    static Columns mapped(int columns, File file) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, 
+                                               StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            boolean fresh = channel.size() == 0;
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES)
+                                       .order(ByteOrder.nativeOrder());
+            if (fresh) {
+                header.putInt(0, 0);
+                header.putInt(4, columns);
+            } else if (header.getInt(4) != columns || header.getInt(0) < 0) {
+                throw new IOException("Not a table of " + columns + " columns: " + file);
+            }
+            BlockColumns data = new BlockColumns(columns, channel, header);
+            data.ensureCapacity(data.rows());
+            return data;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns how many rows were in use when the columns were opened:
+     * the rows of a file written before, or 0.
+     */
+    int rows() {
+        return 0;
+    }
+
+    /**
+     * Keeps how many rows are in use, so a file can be opened again with
+     * them.
+     */
+    void setRows(int rows) {
+    }
+
+    /**
+     * Lets go of the file of the columns, if any. The columns must not be
+     * used afterwards.
+     * @throws IOException if the file can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+    }
+
+    /**
+     * Returns a value.
+     */
+    abstract int get(int column, int row);
+
+    /**
+     * Changes a value.
+     */
+    abstract void set(int column, int row, int value);
+
+    /**
+     * Changes a value only if it still is the expected one, atomically,
+     * so threads working on the same value agree on who changed it.
+     * @return true if the value was changed
+     */
+    abstract boolean compareAndSet(int column, int row, int expected, int value);
+
+    /**
+     * Makes room for a number of rows.
+     */
+    abstract void ensureCapacity(int rows);
+
+    /**
+     * Copies count rows starting at from to the rows starting at to,
+     * in ascending order (to is lower than from).
+     */
+    void moveRows(int from, int to, int count) {
+        moveRows(from, to, count, columns);
+    }
+
+    /**
+     * Copies the first columns of count rows starting at from to the
+     * rows starting at to, in ascending order (to is lower than from).
+     * The other columns stay where they are.
+     */
+    void moveRows(int from, int to, int count, int leading) {
+        for (int r = 0; r < count; r++) {
+            for (int c = 0; c < leading; c++) {
+                set(c, to + r, get(c, from + r));
+            }
+        }
+    }
+
+    /**
+     * Columns in int arrays of the heap, one array per column.
+     */
+    private static class HeapColumns extends Columns {
+        private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+        private int[][] data;
+
+        HeapColumns(int columns) {
+            super(columns);
+            data = new int[columns][0];
+        }
+
+        @Override
+        int get(int column, int row) {
+            return data[column][row];
+        }
+
+        @Override
+        void set(int column, int row, int value) {
+            data[column][row] = value;
+        }
+
+        @Override
+        boolean compareAndSet(int column, int row, int expected, int value) {
+            return INTS.compareAndSet(data[column], row, expected, value);
+        }
+
+        @Override
+        void ensureCapacity(int rows) {
+            if (rows > data[0].length) {
+                int capacity = Math.max(rows, data[0].length * 2);
+                for (int c = 0; c < columns; c++) {
+                    data[c] = Arrays.copyOf(data[c], capacity);
+                }
+            }
+        }
+
+        @Override
+        void moveRows(int from, int to, int count, int leading) {
+            for (int c = 0; c < leading; c++) {
+                System.arraycopy(data[c], from, data[c], to, count);
+            }
+        }
+    }
+
+    /**
+     * Columns in blocks of memory outside the heap: direct buffers, or
+     * regions of a mapped file. Each row is columns ints in a row.
+     */
+    private static class BlockColumns extends Columns {
+        private static final VarHandle INTS = 
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+        private final FileChannel file;   // null: memoria directa
+        private final ByteBuffer header;  // cabecera del archivo (null sin archivo)
+        private final int blockBytes;
+        private final ArrayList<ByteBuffer> blocks;
+
+        BlockColumns(int columns, FileChannel file) {
+            this(columns, file, null);
+        }
+
+        BlockColumns(int columns, FileChannel file, ByteBuffer header) {
+            super(columns);
+            this.file = file;
+            this.header = header;
+            blockBytes = ROWS_PER_BLOCK * columns * 4;
+            blocks = new ArrayList<ByteBuffer>();
+        }
+
+        @Override
+        int rows() {
+            return header == null ? 0 : header.getInt(0);
+        }
+
+        @Override
+        void setRows(int rows) {
+            if (header != null) {
+                header.putInt(0, rows);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (file != null) {
+                file.close();
+            }
+        }
+
+        @Override
+        int get(int column, int row) {
+            ByteBuffer block = blocks.get(row / ROWS_PER_BLOCK);
+            return block.getInt(((row % ROWS_PER_BLOCK) * columns + column) * 4);
+        }
+
+        @Override
+        void set(int column, int row, int value) {
+            ByteBuffer block = blocks.get(row / ROWS_PER_BLOCK);
+            block.putInt(((row % ROWS_PER_BLOCK) * columns + column) * 4, value);
+        }
+
+        @Override
+        boolean compareAndSet(int column, int row, int expected, int value) {
+            // los bloques son directos y cada int está alineado: admiten operaciones atómicas
+            ByteBuffer block = blocks.get(row / ROWS_PER_BLOCK);
+            return INTS.compareAndSet(block, ((row % ROWS_PER_BLOCK) * columns + column) * 4, expected, value);
+        }
+
+        @Override
+        void ensureCapacity(int rows) {
+            while (blocks.size() * ROWS_PER_BLOCK < rows) {
+                ByteBuffer block;
+                if (file == null) {
+                    block = ByteBuffer.allocateDirect(blockBytes);
+                } else {
+                    try {
+                        // mapear más allá del final agranda el archivo
+                        long start = HEADER_BYTES + (long) blocks.size() * blockBytes;
+                        block = file.map(FileChannel.MapMode.READ_WRITE, start, blockBytes);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                blocks.add(block.order(ByteOrder.nativeOrder()));
+            }
+        }
+    }
+}
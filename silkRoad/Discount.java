@@ -1,5 +1,7 @@
 package silkRoad;
 
+import shapes.Canvas;
+
 /**
  * The Discount class represents a special type of store
  * that only delivers 75% of its total money when a robot collects from it.
@@ -11,6 +13,36 @@ package silkRoad;
  * @version 2025-2
  */
 public class Discount extends Store {
+    /**
+     * The robot empties the store but only gets 75% of its money.
+     * The remaining 25% stays as a discount.
+     */
+    static final StorePolicy POLICY = (store, robotMoney) -> {
+        int amount = store.empty();
+        return (int)(amount * 0.75);  // Entrega solo el 75%
+    };
+
+    /**
+     * Creates a new Discount store that is not drawn (see addObserver).
+     * 
+     * @param position logical position of the store in the route
+     * @param tenges   amount of money the store starts with
+     * @param x        X coordinate on screen
+     * @param y        Y coordinate on screen
+     */
+    public Discount(int position, int tenges, int x, int y) {
+        super(position, tenges, x, y);
+    }
+
+    /**
+     * Makes the object of a row of a table (see StoreTable).
+     * 
+     * @param table the table of the store
+     * @param row   its row in the table
+     */
+    Discount(StoreTable table, int row) {
+        super(table, row);
+    }
 
     /**
      * Creates a new Discount store.
@@ -23,7 +55,21 @@ public class Discount extends Store {
      * @param color    ignored parameter (the store is always orange)
      */
     public Discount(int position, int tenges, int x, int y, String color) {
-        super(position, tenges, x, y, "orange");
+        this(position, tenges, x, y, color, Canvas.getCanvas());
+    }
+
+    /**
+     * Creates a new Discount store drawn on a given canvas.
+     * 
+     * @param position logical position of the store in the route
+     * @param tenges   amount of money the store starts with
+     * @param x        X coordinate on screen
+     * @param y        Y coordinate on screen
+     * @param color    ignored parameter (the store is always orange)
+     * @param canvas   canvas where the store is drawn (null to draw nothing)
+     */
+    public Discount(int position, int tenges, int x, int y, String color, Canvas canvas) {
+        super(position, tenges, x, y, "orange", canvas);
     }
 
     /**
@@ -34,8 +80,22 @@ public class Discount extends Store {
      */
     @Override
     public int collect() {
-        int amount = super.collect(); // Llama al método de la clase padre
-        return (int)(amount * 0.75);  // Devuelve solo el 75%
+        return POLICY.give(this, 0);
     }
-}
 
+    /**
+     * Robots only get 75% of the money of this store.
+     */
+    @Override
+    protected StorePolicy collectPolicy() {
+        return POLICY;
+    }
+
+    /**
+     * This store is always drawn orange.
+     */
+    @Override
+    protected String colorFor(String color) {
+        return "orange";
+    }
+}
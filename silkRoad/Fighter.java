@@ -1,5 +1,7 @@
 package silkRoad;
 
+import shapes.Canvas;
+
 /**
  * The Fighter class represents a special type of store
  * that only allows robots with more money than the store itself
@@ -13,6 +15,46 @@ package silkRoad;
  * @version 2025-2
  */
 public class Fighter extends Store {
+    /**
+     * The robot empties the store only if it has more money than the store.
+     */
+    static final StorePolicy POLICY = new StorePolicy() {
+        @Override
+        public int give(Store store, int robotMoney) {
+            if (yieldsTo(store, robotMoney)) {
+                return store.empty(); // El robot puede vaciar la tienda
+            }
+            return 0;
+        }
+
+        @Override
+        public boolean yieldsTo(Store store, int robotMoney) {
+            // Solo entrega su dinero si el robot tiene más dinero que la tienda
+            return robotMoney > store.getTenges();
+        }
+    };
+
+    /**
+     * Creates a new Fighter store that is not drawn (see addObserver).
+     * 
+     * @param position logical position of the store in the route
+     * @param tenges   initial amount of money the store holds
+     * @param x        X coordinate on the screen
+     * @param y        Y coordinate on the screen
+     */
+    public Fighter(int position, int tenges, int x, int y) {
+        super(position, tenges, x, y);
+    }
+
+    /**
+     * Makes the object of a row of a table (see StoreTable).
+     * 
+     * @param table the table of the store
+     * @param row   its row in the table
+     */
+    Fighter(StoreTable table, int row) {
+        super(table, row);
+    }
 
     /**
      * Creates a new Fighter store.
@@ -25,7 +67,21 @@ public class Fighter extends Store {
      * @param color    ignored parameter (the store is always red)
      */
     public Fighter(int position, int tenges, int x, int y, String color) {
-        super(position, tenges, x, y, "red");
+        this(position, tenges, x, y, color, Canvas.getCanvas());
+    }
+
+    /**
+     * Creates a new Fighter store drawn on a given canvas.
+     * 
+     * @param position logical position of the store in the route
+     * @param tenges   initial amount of money the store holds
+     * @param x        X coordinate on the screen
+     * @param y        Y coordinate on the screen
+     * @param color    ignored parameter (the store is always red)
+     * @param canvas   canvas where the store is drawn (null to draw nothing)
+     */
+    public Fighter(int position, int tenges, int x, int y, String color, Canvas canvas) {
+        super(position, tenges, x, y, "red", canvas);
     }
 
     /**
@@ -36,15 +92,22 @@ public class Fighter extends Store {
      * @return the collected money, or 0 if the robot is not allowed
      */
     public int collect(int robotMoney) {
-        // Solo entrega su dinero si el robot tiene más dinero que la tienda
-        if (robotMoney > getTenges()) {
-            return super.collect(); // El robot puede vaciar la tienda
-        } else {
-            System.out.println("El robot no tiene suficiente dinero para vaciar esta FighterStore.");
-            return 0;
-        }
+        return POLICY.give(this, robotMoney);
     }
-}
-
 
+    /**
+     * Only robots richer than this store can collect from it.
+     */
+    @Override
+    protected StorePolicy collectPolicy() {
+        return POLICY;
+    }
 
+    /**
+     * This store is always drawn red.
+     */
+    @Override
+    protected String colorFor(String color) {
+        return "red";
+    }
+}
@@ -1,5 +1,7 @@
 package silkRoad;
 
+import shapes.Canvas;
+
 /**
  * The NeverBack class represents a special type of robot
  * that never moves backward (upward on the screen).
@@ -15,6 +17,27 @@ package silkRoad;
  */
 public class NeverBack extends Robot {
 
+    /**
+     * Creates a new NeverBack robot that is not drawn (see addObserver).
+     * 
+     * @param x      initial X coordinate
+     * @param y      initial Y coordinate
+     * @param size   diameter of the robot
+     */
+    public NeverBack(int x, int y, int size) {
+        super(x, y, size);
+    }
+
+    /**
+     * Makes the object of a row of a table (see RobotTable).
+     * 
+     * @param table the table of the robot
+     * @param row   its row in the table
+     */
+    NeverBack(RobotTable table, int row) {
+        super(table, row);
+    }
+
     /**
      * Creates a new NeverBack robot.
      * This robot always uses the color magenta for identification.
@@ -25,7 +48,20 @@ public class NeverBack extends Robot {
      * @param color  ignored parameter (always magenta)
      */
     public NeverBack(int x, int y, int size, String color) {
-        super(x, y, size, "magenta");
+        this(x, y, size, color, Canvas.getCanvas());
+    }
+
+    /**
+     * Creates a new NeverBack robot drawn on a given canvas.
+     * 
+     * @param x      initial X coordinate
+     * @param y      initial Y coordinate
+     * @param size   diameter of the robot
+     * @param color  ignored parameter (always magenta)
+     * @param canvas canvas where the robot is drawn (null to draw nothing)
+     */
+    public NeverBack(int x, int y, int size, String color, Canvas canvas) {
+        super(x, y, size, "magenta", canvas);
     }
 
     /**
@@ -45,4 +81,12 @@ public class NeverBack extends Robot {
             super.moveTo(newX, newY);
         }
     }
+
+    /**
+     * This robot is always drawn magenta.
+     */
+    @Override
+    protected String colorFor(String color) {
+        return "magenta";
+    }
 }
@@ -0,0 +1,59 @@
+package silkRoad;
+
+/**
+ * A RoadObserver is told about the changes of a whole SilkRoad, usually
+ * to draw them (see SilkRoadView). A road without observers draws
+ * nothing and only keeps the state of the simulation.
+ * 
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+public interface RoadObserver {
+    /**
+     * A store was placed on the road.
+     * @param store the new store
+     * @param color color assigned to the store
+     */
+    void storePlaced(Store store, String color);
+    
+    /**
+     * A robot was placed on the road.
+     * @param robot the new robot
+     * @param color color assigned to the robot
+     */
+    void robotPlaced(Robot robot, String color);
+    
+    /**
+     * The spiral route of the robots was laid out.
+     * @param spiral geometry of the route
+     * @param numPoints number of positions of the route
+     */
+    void spiralDrawn(SpiralGeometry spiral, int numPoints);
+    
+    /**
+     * The profit of the road changed.
+     * @param profit current profit
+     * @param maxPossibleProfit profit that fills the progress
+     */
+    void profitChanged(int profit, int maxPossibleProfit);
+    
+    /**
+     * The road was shown or hidden.
+     * @param shown true if it is shown, false if hidden
+     */
+    void roadShown(boolean shown);
+    
+    /**
+     * The simulation finished: everything of the road goes away.
+     */
+    void roadFinished();
+    
+    /**
+     * Runs changes of the road that belong together, such as showing
+     * all of it. A view may show them at once; by default they just run.
+     * @param changes the changes, which tell the observers as usual
+     */
+    default void batch(Runnable changes) {
+        changes.run();
+    }
+}
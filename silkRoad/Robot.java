@@ -2,29 +2,61 @@ package silkRoad;
 
 import java.awt.Color;
 import java.awt.Graphics;
-import shapes.Circle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import shapes.Canvas;
 
 /**
  * The Robot class represents a robot that can move visually on the Silk Road.
- * It keeps track of its screen coordinates and graphical representation.
+ * It keeps track of its screen coordinates; it is drawn by a RobotView,
+ * or any other RobotObserver, told about every change.
+ * 
+ * The state itself lives in a row of a RobotTable: a robot placed on a
+ * road is a row of the table of the road, and a robot created alone has
+ * a table of its own. A road makes the Robot of a row only when somebody
+ * asks for it.
  * 
  * Each robot has:
  * - A current position (x, y)
  * - An initial position (for reset)
- * - A size and color
- * - A Circle object that draws it on the screen
+ * - A size
  * 
  * @author Alejandra Beltrán - Adrian Ducuara
  * @version 2025-2
  */
 public class Robot {
-    private int x;
-    private int y;
-    private int size;
-    private int initialX;
-    private int initialY;
-    private Circle dibujo;
-    private String color;
+    RobotTable table;    // tabla donde está el estado del robot
+    int row;             // fila del robot en esa tabla
+    final RobotPolicy policy;   // regla de recolección de su clase de robot
+    private List<RobotObserver> observers;   // vacía y compartida hasta el primero
+
+    /**
+     * Creates a new Robot that is not drawn (see addObserver).
+     * 
+     * @param x      initial X coordinate
+     * @param y      initial Y coordinate
+     * @param size   diameter of the robot
+     */
+    public Robot(int x, int y, int size) {
+        table = new RobotTable();
+        row = table.add(this, x, y, size);
+        policy = collectPolicy();
+        observers = Collections.emptyList();
+    }
+
+    /**
+     * Makes the object of a row of a table (see RobotTable).
+     * 
+     * @param table the table of the robot
+     * @param row   its row in the table
+     */
+    Robot(RobotTable table, int row) {
+        this.table = table;
+        this.row = row;
+        policy = collectPolicy();
+        observers = Collections.emptyList();
+    }
 
     /**
      * Creates a new Robot at the given position with a specific size and color.
@@ -36,45 +68,85 @@ public class Robot {
      * @param color  color name of the robot
      */
     public Robot(int x, int y, int size, String color) {
-        this.x = x;
-        this.y = y;
-        this.size = size;
-        initialX = x;
-        initialY = y;
-        this.color = color;
+        this(x, y, size, color, Canvas.getCanvas());
+    }
+
+    /**
+     * Creates a new Robot drawn on a given canvas.
+     * 
+     * @param x      initial X coordinate
+     * @param y      initial Y coordinate
+     * @param size   diameter of the robot
+     * @param color  color name of the robot
+     * @param canvas canvas where the robot is drawn (null to draw nothing)
+     */
+    public Robot(int x, int y, int size, String color, Canvas canvas) {
+        this(x, y, size);
+        if (canvas != null) {
+            addObserver(new RobotView(this, colorFor(color), canvas));
+        }
+    }
 
-        dibujo = new Circle();
-        dibujo.changeColor(color);
-        dibujo.changeSize(size);
-        dibujo.moveHorizontal(x - 20);
-        dibujo.moveVertical(y - 15);
-        dibujo.makeVisible();
+    /**
+     * Returns the rule this robot follows with the money it collects. It
+     * is asked once, when the robot is created, so every kind of robot
+     * should give a single shared policy. Kinds of robot with a rule of
+     * their own override it.
+     * 
+     * @return the collection policy of this kind of robot
+     */
+    protected RobotPolicy collectPolicy() {
+        return RobotPolicy.KEEP_ALL;
+    }
+
+    /**
+     * Returns the color a view draws this robot with.
+     * Kinds of robot with a color of their own override it.
+     * 
+     * @param color the color asked for
+     * @return the color to draw the robot with
+     */
+    protected String colorFor(String color) {
+        return color;
+    }
+
+    /**
+     * Adds an observer told about every change of the robot.
+     * @param observer the observer to add
+     */
+    public void addObserver(RobotObserver observer) {
+        if (observers.isEmpty()) {
+            observers = new ArrayList<RobotObserver>(1);
+        }
+        observers.add(observer);
+    }
+
+    /**
+     * Removes an observer of the robot.
+     * @param observer the observer to remove
+     */
+    public void removeObserver(RobotObserver observer) {
+        observers.remove(observer);
     }
 
     /**
      * Moves the robot smoothly to a new position on the screen.
-     * Updates both its logical and graphical coordinates.
      * 
      * @param newX new X coordinate
      * @param newY new Y coordinate
      */
     public void moveTo(int newX, int newY) {
-        int dx = newX - x;
-        int dy = newY - y;
-
-        // Movimiento visual suave del círculo
-        dibujo.slowMoveHorizontal(dx);
-        dibujo.slowMoveVertical(dy);
-
-        x = newX;
-        y = newY;
+        table.setPlace(row, newX, newY);
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).robotMoved(this);
+        }
     }
 
     /**
      * Returns the robot to its initial position.
      */
     public void reset() {
-        moveTo(initialX, initialY);
+        moveTo(table.initialX(row), table.initialY(row));
     }
 
     /**
@@ -82,14 +154,18 @@ public class Robot {
      * Makes its visual representation invisible.
      */
     public void delete() {
-        dibujo.makeInvisible();
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).robotShown(this, false);
+        }
     }
     
     /**
      * Makes the robot visible on the screen.
      */
     public void makeVisible() {
-        dibujo.makeVisible();
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).robotShown(this, true);
+        }
     }
     
     /**
@@ -97,11 +173,8 @@ public class Robot {
      * The robot temporarily changes color to yellow and back.
      */
     public void blink() {
-        String originalColor = color;
-        // Efecto de parpadeo
-        for (int i = 0; i < 3; i++) {
-            dibujo.changeColor("yellow");
-            dibujo.changeColor(originalColor);
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).robotBlinked(this);
         }
     }
     
@@ -110,7 +183,7 @@ public class Robot {
      * @return x coordinate
      */
     public int getX() {
-        return x;
+        return table.x(row);
     }
     
     /**
@@ -118,6 +191,23 @@ public class Robot {
      * @return y coordinate
      */
     public int getY() {
-        return y;
+        return table.y(row);
+    }
+    
+    /**
+     * Returns the money the robot has collected since it was placed
+     * (or since the road was rebooted).
+     * @return money of the robot
+     */
+    public int getMoney() {
+        return table.money(row);
+    }
+    
+    /**
+     * Returns the diameter of the robot.
+     * @return size of the robot
+     */
+    public int getSize() {
+        return table.size(row);
     }
 }
@@ -0,0 +1,29 @@
+package silkRoad;
+
+/**
+ * A RobotObserver is told about the changes of a robot, usually to show
+ * them (see RobotView). Robots work the same with or without observers.
+ * 
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+public interface RobotObserver {
+    /**
+     * The robot moved to a new position.
+     * @param robot the robot that moved
+     */
+    void robotMoved(Robot robot);
+    
+    /**
+     * The robot was the most successful of a move and should stand out.
+     * @param robot the robot
+     */
+    void robotBlinked(Robot robot);
+    
+    /**
+     * The robot was shown or hidden.
+     * @param robot the robot
+     * @param shown true if it is shown, false if hidden
+     */
+    void robotShown(Robot robot, boolean shown);
+}
@@ -0,0 +1,22 @@
+package silkRoad;
+
+/**
+ * A RobotPolicy is the rule a kind of robot follows with the money a store
+ * hands over: how much of it the robot keeps. Each kind of robot has one
+ * shared policy (see Robot.collectPolicy), so a new kind of robot brings
+ * its own rule without changing the road.
+ * 
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+public interface RobotPolicy {
+    /** The rule of ordinary robots: they keep all the money. */
+    RobotPolicy KEEP_ALL = amount -> amount;
+    
+    /**
+     * The robot received money from a store.
+     * @param amount the money the store handed over
+     * @return the money the robot keeps
+     */
+    int keep(int amount);
+}
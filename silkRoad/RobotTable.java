@@ -0,0 +1,281 @@
+package silkRoad;
+
+/**
+ * The RobotTable class keeps the state of the robots of a road, one row
+ * per robot (see RowTable). Its handles are the Robot objects.
+ * 
+ * As in a StoreTable, a row added by kind has no Robot until one is
+ * asked for, and the operations on rows go through the object when the
+ * row has one. A table opened again from a file makes at once the robots
+ * whose class changes how they move; robots of a CUSTOM class come back
+ * as plain ones.
+ * 
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+class RobotTable extends RowTable<Robot> {
+    // columnas
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int SIZE = 2;
+    private static final int INITIAL_X = 3;
+    private static final int INITIAL_Y = 4;
+    private static final int MONEY = 5;
+    private static final int KIND = 6;
+    private static final int HANDLE = 7;
+    static final int COLUMNS = 8;
+
+    // clases de robot de una fila
+    static final int CUSTOM = 0;     // una clase que la tabla no conoce
+    static final int PLAIN = 1;
+    static final int TENDER = 2;
+    static final int NEVER_BACK = 3;
+
+    // robots de paso para leer filas sin objeto (ver peek): dos por clase
+    private final Robot[][] cursors = new Robot[2][4];
+
+    /**
+     * Creates an empty table in the heap.
+     */
+    public RobotTable() {
+        this(Columns.onHeap(COLUMNS));
+    }
+
+    /**
+     * Creates an empty table.
+     * @param data where the columns are kept (with COLUMNS columns)
+     */
+    public RobotTable(Columns data) {
+        super(data, HANDLE, COLUMNS);
+        // Las filas de un archivo no tienen objeto; NeverBack lo necesita para moverse
+        for (int row = 0; row < size(); row++) {
+            if (data.get(KIND, row) == NEVER_BACK) {
+                get(row);
+            }
+        }
+    }
+
+    /**
+     * Adds a row for a new robot.
+     * @return the row of the robot
+     */
+    int add(Robot robot, int x, int y, int size) {
+        int row = addRow(robot);
+        fill(row, kindOf(robot), x, y, size);
+        return row;
+    }
+
+    /**
+     * Adds a row for a robot of a given kind, made when it is asked for.
+     * @param kind PLAIN or TENDER
+     * @return the row of the robot
+     */
+    int add(int kind, int x, int y, int size) {
+        int row = addRow(null);
+        fill(row, kind, x, y, size);
+        return row;
+    }
+
+    private void fill(int row, int kind, int x, int y, int size) {
+        data.set(X, row, x);
+        data.set(Y, row, y);
+        data.set(SIZE, row, size);
+        data.set(INITIAL_X, row, x);
+        data.set(INITIAL_Y, row, y);
+        data.set(MONEY, row, 0);
+        data.set(KIND, row, kind);
+    }
+
+    /**
+     * Moves a robot, with all its state, from the table where it is to
+     * the end of this one.
+     * @param robot the robot to move
+     */
+    public void add(Robot robot) {
+        RobotTable from = robot.table;
+        if (from == this) {
+            return;
+        }
+        int old = robot.row;
+        adopt(robot, from, old);
+        from.forget(old);
+        from.remove(old);
+    }
+
+    /**
+     * Copies the row of a robot at the end of this table and makes the
+     * robot read it.
+     */
+    private void adopt(Robot robot, RobotTable from, int old) {
+        int row = addRow(robot);
+        copyRow(from, old, row);
+        data.set(KIND, row, kindOf(robot));
+        robot.table = this;
+        robot.row = row;
+    }
+
+    /**
+     * Returns the kind of a row for a robot of a given class.
+     */
+    private static int kindOf(Robot robot) {
+        Class<?> kind = robot.getClass();
+        if (kind == Robot.class) {
+            return PLAIN;
+        } else if (kind == Tender.class) {
+            return TENDER;
+        } else if (kind == NeverBack.class) {
+            return NEVER_BACK;
+        }
+        return CUSTOM;
+    }
+
+    @Override
+    protected Robot handle(int row) {
+        switch (data.get(KIND, row)) {
+            case TENDER:
+                return new Tender(this, row);
+            case NEVER_BACK:
+                return new NeverBack(this, row);
+            default:
+                return new Robot(this, row);
+        }
+    }
+
+    @Override
+    protected void moved(Robot robot, int row) {
+        robot.row = row;
+    }
+
+    @Override
+    protected void detach(Robot robot, int row) {
+        new RobotTable().adopt(robot, this, row);
+    }
+
+    /**
+     * Returns the row of a robot.
+     * @param robot any object
+     * @return its row, or -1 if it is not a robot of this table
+     */
+    public int indexOf(Object robot) {
+        if (robot instanceof Robot && ((Robot) robot).table == this) {
+            return ((Robot) robot).row;
+        }
+        return -1;
+    }
+
+    int x(int row) {
+        return data.get(X, row);
+    }
+
+    int y(int row) {
+        return data.get(Y, row);
+    }
+
+    void setPlace(int row, int x, int y) {
+        data.set(X, row, x);
+        data.set(Y, row, y);
+    }
+
+    /**
+     * Tells whether the circle a robot is shown as covers a point: the
+     * circle of its size with its corner at its position.
+     */
+    boolean covers(int row, int x, int y) {
+        double radio = size(row) / 2.0;
+        double dx = x - (x(row) + radio);
+        double dy = y - (y(row) + radio);
+        return dx * dx + dy * dy < radio * radio;
+    }
+
+    int size(int row) {
+        return data.get(SIZE, row);
+    }
+
+    int initialX(int row) {
+        return data.get(INITIAL_X, row);
+    }
+
+    int initialY(int row) {
+        return data.get(INITIAL_Y, row);
+    }
+
+    int money(int row) {
+        return data.get(MONEY, row);
+    }
+
+    void setMoney(int row, int money) {
+        data.set(MONEY, row, money);
+    }
+
+    /**
+     * Returns a robot to read a row with, for a moment, without giving
+     * the row an object: the object of the row if it has one, otherwise
+     * one of the robots of the class of the row the table keeps for this,
+     * pointed at the row. Such a robot reads another row the next time
+     * peek is called with the same side, so nobody may keep it.
+     * @param row  the row
+     * @param side 0 or 1, to read two rows at the same time
+     * @return a robot that reads the row
+     */
+    Robot peek(int row, int side) {
+        Robot robot = kept(row);
+        if (robot != null) {
+            return robot;
+        }
+        int kind = data.get(KIND, row);
+        Robot cursor = cursors[side][kind];
+        if (cursor == null) {
+            cursor = handle(row);
+            cursors[side][kind] = cursor;
+        }
+        cursor.row = row;
+        return cursor;
+    }
+
+    /**
+     * Returns the rule the robot of a row follows with its money.
+     */
+    RobotPolicy policy(int row) {
+        Robot robot = kept(row);
+        if (robot != null) {
+            return robot.policy;
+        }
+        return data.get(KIND, row) == TENDER ? Tender.POLICY : RobotPolicy.KEEP_ALL;
+    }
+
+    /**
+     * Moves a robot to a place.
+     */
+    void moveTo(int row, int x, int y) {
+        Robot robot = kept(row);
+        if (robot != null) {
+            robot.moveTo(x, y);
+        } else {
+            setPlace(row, x, y);
+        }
+    }
+
+    /**
+     * Shows or hides a robot; a row without object has nobody to draw it.
+     */
+    void show(int row, boolean shown) {
+        Robot robot = kept(row);
+        if (robot != null) {
+            if (shown) {
+                robot.makeVisible();
+            } else {
+                robot.delete();
+            }
+        }
+    }
+
+    /**
+     * Makes a robot blink, if anybody draws it.
+     */
+    void blink(int row) {
+        Robot robot = kept(row);
+        if (robot != null) {
+            robot.blink();
+        }
+    }
+}
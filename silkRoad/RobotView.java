@@ -0,0 +1,63 @@
+package silkRoad;
+
+import shapes.Canvas;
+import shapes.Circle;
+
+/**
+ * The RobotView class draws a robot as a circle on a canvas and keeps it
+ * up to date as a RobotObserver. Moves of the robot are animated.
+ * 
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+public class RobotView implements RobotObserver {
+    private Circle dibujo;
+    private int shownX;
+    private int shownY;
+
+    /**
+     * Creates the view of a robot and shows it. Attach it to the robot
+     * with Robot.addObserver.
+     * 
+     * @param robot  the robot to draw
+     * @param color  color name of the robot
+     * @param canvas canvas where the robot is drawn (null to draw nothing)
+     */
+    public RobotView(Robot robot, String color, Canvas canvas) {
+        shownX = robot.getX();
+        shownY = robot.getY();
+
+        dibujo = new Circle(canvas);
+        dibujo.setLayer(2); // encima de las tiendas
+        dibujo.setOwner(robot);
+        dibujo.changeColor(color);
+        dibujo.changeSize(robot.getSize());
+        dibujo.moveHorizontal(shownX - 20);
+        dibujo.moveVertical(shownY - 15);
+        dibujo.makeVisible();
+    }
+
+    @Override
+    public void robotMoved(Robot robot) {
+        // Movimiento visual suave del círculo
+        dibujo.slowMoveHorizontal(robot.getX() - shownX);
+        dibujo.slowMoveVertical(robot.getY() - shownY);
+        shownX = robot.getX();
+        shownY = robot.getY();
+    }
+
+    @Override
+    public void robotBlinked(Robot robot) {
+        // Parpadeo en amarillo, animado por el canvas
+        dibujo.blink("yellow", 3);
+    }
+
+    @Override
+    public void robotShown(Robot robot, boolean shown) {
+        if (shown) {
+            dibujo.makeVisible();
+        } else {
+            dibujo.makeInvisible();
+        }
+    }
+}
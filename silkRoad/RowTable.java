@@ -0,0 +1,226 @@
+package silkRoad;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * The RowTable class keeps the state of many objects of the road in
+ * columns: one int column for each attribute, where row i is the i-th
+ * object. Going over every object reads a few columns one after the
+ * other instead of following a reference for each object. The columns
+ * can be in the heap or outside it (see Columns).
+ * 
+ * A row may have a handle, the object that reads and writes the row.
+ * Handles are made on demand (see get) and only the rows that have one
+ * are kept in a map, so a table of rows nobody asked for costs only its
+ * columns: outside the heap, it keeps nothing per row in the heap. A
+ * column of each row tells whether the row has a handle, so asking for
+ * one that does not exist never looks in the map. Rows keep the order
+ * in which they were added, so the row of an object is its index in the
+ * road.
+ * 
+ * The columns of a row are the first rowColumns ones; the table may
+ * keep other columns after them (see StoreHeap), which do not move with
+ * the rows.
+ * 
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+abstract class RowTable<H> implements Iterable<H> {
+    protected final Columns data;
+    private final int handleColumn;   // 1 si la fila tiene objeto
+    private final int rowColumns;
+    private final TreeMap<Integer, H> handles;   // solo las filas con objeto
+    private int size;
+    boolean road;               // es la tabla de una ruta (ver SilkRoad)
+
+    /**
+     * Creates a table with the rows the columns already have (see
+     * Columns.rows), without handles.
+     * @param data         where the columns of the table are kept
+     * @param handleColumn the column that tells if a row has a handle
+     * @param rowColumns   how many columns, from the first, a row has
+     */
+    protected RowTable(Columns data, int handleColumn, int rowColumns) {
+        this.data = data;
+        this.handleColumn = handleColumn;
+        this.rowColumns = rowColumns;
+        handles = new TreeMap<Integer, H>();
+        size = data.rows();
+        // Los objetos de las filas de un archivo no volvieron con él
+        for (int row = 0; row < size; row++) {
+            data.set(handleColumn, row, 0);
+        }
+    }
+
+    /**
+     * Adds an empty row.
+     * @param handle the handle of the row, or null to make it on demand
+     * @return the new row
+     */
+    protected int addRow(H handle) {
+        data.ensureCapacity(size + 1);
+        if (handle != null) {
+            handles.put(size, handle);
+        }
+        data.set(handleColumn, size, handle != null ? 1 : 0);
+        data.setRows(size + 1);
+        return size++;
+    }
+
+    /**
+     * Makes the handle of a row that has none.
+     */
+    protected abstract H handle(int row);
+
+    /**
+     * Tells a handle its new row, after the rows before it were removed.
+     */
+    protected abstract void moved(H handle, int row);
+
+    /**
+     * Gives the handle of a row being removed a table of its own, with a
+     * copy of its row, so it keeps working once the row is gone.
+     */
+    protected abstract void detach(H handle, int row);
+
+    /**
+     * Removes a row; the rows after it move up one place.
+     * @param row the row to remove
+     */
+    public void remove(int row) {
+        H handle = kept(row);
+        if (handle != null) {
+            detach(handle, row);
+            handles.remove(row);
+        }
+        data.moveRows(row + 1, row, size - row - 1, rowColumns);
+        size--;
+        data.setRows(size);
+        // Los objetos de las filas siguientes suben un lugar
+        Map<Integer, H> following = new TreeMap<Integer, H>(handles.tailMap(row, false));
+        handles.keySet().removeAll(following.keySet());
+        for (Map.Entry<Integer, H> entry : following.entrySet()) {
+            int to = entry.getKey() - 1;
+            handles.put(to, entry.getValue());
+            moved(entry.getValue(), to);
+        }
+    }
+
+    /**
+     * Forgets the handle of a row, which now reads another table.
+     */
+    protected void forget(int row) {
+        handles.remove(row);
+        data.set(handleColumn, row, 0);
+    }
+
+    /**
+     * Copies the columns of a row of another table into a row of this
+     * one; the row keeps its own handle.
+     */
+    protected void copyRow(RowTable<H> from, int fromRow, int row) {
+        for (int c = 0; c < rowColumns; c++) {
+            if (c != handleColumn) {
+                data.set(c, row, from.data.get(c, fromRow));
+            }
+        }
+    }
+
+    /**
+     * Removes every row.
+     */
+    public void clear() {
+        handles.clear();
+        size = 0;
+        data.setRows(0);
+    }
+
+    /**
+     * Lets go of the file of the columns, if any. The table must not be
+     * used afterwards.
+     * @throws IOException if the file can not be closed
+     */
+    public void close() throws IOException {
+        data.close();
+    }
+
+    /**
+     * Returns the handle of a row, making it if the row had none. The
+     * row keeps it from then on.
+     * @param row the row
+     * @return its handle
+     */
+    public H get(int row) {
+        H handle = kept(row);
+        if (handle == null) {
+            handle = handle(row);
+            handles.put(row, handle);
+            data.set(handleColumn, row, 1);
+        }
+        return handle;
+    }
+
+    /**
+     * Returns the handle a row keeps, without making one.
+     * @param row the row
+     * @return its handle, or null if nobody asked for it yet
+     */
+    H kept(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row);
+        }
+        if (data.get(handleColumn, row) == 0) {
+            return null;
+        }
+        return handles.get(row);
+    }
+
+    /**
+     * Returns the rows that keep a handle, in ascending order.
+     */
+    Collection<Integer> keptRows() {
+        return handles.keySet();
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if there are no rows
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Goes over the handles of every row, making the missing ones.
+     */
+    @Override
+    public Iterator<H> iterator() {
+        return new Iterator<H>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public H next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+}
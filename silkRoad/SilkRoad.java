@@ -1,11 +1,13 @@
 package silkRoad;
 
 import shapes.Canvas;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Comparator;
 import java.util.TreeMap;
-import shapes.Rectangle;
+import java.util.stream.IntStream;
 
 /**
  * Class SilkRoad
@@ -19,16 +21,24 @@ import shapes.Rectangle;
  * - Collect profits and display progress.
  * - Simulate contests and calculate daily maximum profit.
  * 
+ * The road only keeps the state of the simulation; everything is drawn by
+ * the observers attached to it (a SilkRoadView when it has a canvas).
+ * Without a canvas nothing is drawn, and simulations run at full speed.
+ * The canvas given to a constructor only goes to that SilkRoadView: the
+ * road itself never draws, and answers storeAt and robotAt from the
+ * places it keeps.
+ * 
  * @author Alejandra Beltrán - Adrian Ducuara
  * @version 2025-2
  */
-public class SilkRoad {
+public class SilkRoad implements Closeable {
     
     // ----- Attributes -----
     
     private int length;  // Silk road length (defines scale and store spacing)
-    private ArrayList<Store> stores;  // List of stores on the silk road
-    private ArrayList<Robot> robots;  // List of robots operating on the road
+    private StoreTable stores;        // Stores on the silk road, one row each
+    private StoreHeap bestStores;     // The same stores, richest first
+    private RobotTable robots;        // Robots operating on the road, one row each
     private boolean visible;          // Visibility flag for GUI mode
     private int profit;               // Accumulated profit value
     private SilkRoadContest contest;  // Contest instance to simulate problem
@@ -39,48 +49,123 @@ public class SilkRoad {
     private int storeColorIndex = 0;
     private int robotColorIndex = 0;
     
-    private SpiralPath spiralPath;  // Draws and manages the spiral path
-    private ArrayList<int[]> spiralPositions; // Stores the coordinates of each spiral position
-    
-    // Progress bar representation
-    private Rectangle progressBackground; // Background of the progress bar
-    private Rectangle progressBar;        // Filled part of the bar indicating gain
-    private int maxPossibleProfit;        // Used to calculate proportional bar filling
+    private ArrayList<RoadObserver> observers; // Views told about every change
+    private SpiralGeometry spiral;   // Positions of the spiral route (none until drawSpiral)
+    private int spiralPoints;        // Number of positions of the spiral route
+    private int maxPossibleProfit;   // Used to calculate proportional bar filling
+    private boolean parallel;        // Robots move at the same time (see setParallel)
+    private Comparator<Robot> tieBreak; // Which robot reaches a store first (null: placement order)
+    private int[] order = new int[0];   // Rows of the robots in tie-break order, reused every move
+    private int[] sorting = new int[0]; // Room to merge while sorting them
     
     /**
      * Constructor: creates the SilkRoad simulator with a given length.
-     * Initializes all graphical and logical components.
+     * Initializes all graphical and logical components on the shared canvas.
      * 
      * @param length the length of the silk road
      */
     public SilkRoad(int length) {
+        this(length, Canvas.getCanvas());
+    }
+    
+    /**
+     * Constructor: creates the SilkRoad simulator with a given length,
+     * drawn on a canvas of its own (see Canvas.create). Simulations with
+     * different canvases share no state and can run at the same time.
+     * 
+     * A road without canvas draws nothing at all: it is the simulation
+     * alone, for tests and batch jobs.
+     * 
+     * @param length the length of the silk road
+     * @param canvas the canvas where everything of this road is drawn,
+     *               or null to draw nothing
+     */
+    public SilkRoad(int length, Canvas canvas) {
+        this(length, canvas, new StoreTable(), new RobotTable());
+    }
+    
+    /**
+     * Creates a road whose stores and robots keep their state outside the
+     * Java heap, in direct memory: long simulations of big roads put no
+     * pressure on the garbage collector. The road answers stores(),
+     * robots() and emptiedStores() like any other.
+     * 
+     * @param length the length of the silk road
+     * @param canvas the canvas where the road is drawn, or null to draw nothing
+     * @return the new road
+     */
+    public static SilkRoad offHeap(int length, Canvas canvas) {
+        return new SilkRoad(length, canvas, 
+                            new StoreTable(Columns.offHeap(StoreTable.COLUMNS)), 
+                            new RobotTable(Columns.offHeap(RobotTable.COLUMNS)));
+    }
+    
+    /**
+     * Creates a road whose stores and robots keep their state in files
+     * mapped in memory (stores.bin and robots.bin in a directory). The
+     * operating system keeps in memory only the parts of the files in
+     * use. Without a canvas, stores and robots placed by kind keep
+     * nothing in the Java heap (see RowTable), so the road can be larger
+     * than the heap; only the stores and robots somebody asked for (to
+     * draw them, for instance) have an object there.
+     * 
+     * If the directory already has the files of a road, the new road
+     * starts with its stores and robots, their money and places included
+     * (in the order they were placed, with the default colors). Nothing
+     * else comes back: the spiral must be drawn again, and the profit
+     * starts at zero. Stores and robots of kinds the road does not know
+     * by name come back as ordinary ones. Close the road to let go of
+     * the files.
+     * 
+     * @param length the length of the silk road
+     * @param canvas the canvas where the road is drawn, or null to draw nothing
+     * @param directory where the files are written
+     * @return the new road
+     * @throws IOException if the files can not be opened, or are not the
+     *         files of a road
+     */
+    public static SilkRoad mapped(int length, Canvas canvas, File directory) throws IOException {
+        directory.mkdirs();
+        StoreTable stores = new StoreTable(Columns.mapped(StoreTable.COLUMNS, new File(directory, "stores.bin")));
+        RobotTable robots;
+        try {
+            robots = new RobotTable(Columns.mapped(RobotTable.COLUMNS, new File(directory, "robots.bin")));
+        } catch (IOException e) {
+            stores.close();
+            throw e;
+        }
+        return new SilkRoad(length, canvas, stores, robots);
+    }
+    
+    /**
+     * Creates a road that keeps its stores and robots in the given tables,
+     * with the rows they already have.
+     */
+    private SilkRoad(int length, Canvas canvas, StoreTable stores, RobotTable robots) {
         this.length = length;
-        stores = new ArrayList<Store>();
-        robots = new ArrayList<Robot>();
+        this.stores = stores;
+        bestStores = new StoreHeap(stores);
+        this.robots = robots;
+        stores.road = true;
+        robots.road = true;
         visible = true;
         profit = 0;
         contest = new SilkRoadContest();
-        spiralPositions = new ArrayList<int[]>();
-        
-        spiralPath = new SpiralPath();
-        spiralPath.changeColor("black");
+        spiralPoints = 0;
         
-        // Configura el fondo de la barra de progreso
-        progressBackground = new Rectangle();
-        progressBackground.changeColor("gray");
-        progressBackground.changeSize(25, 700);
-        progressBackground.moveHorizontal(50 - 70);
-        progressBackground.moveVertical(550 - 15);
-        
-        // Configura la barra verde que representa la ganancia
-        progressBar = new Rectangle();
-        progressBar.changeColor("green");
-        progressBar.changeSize(25, 0);
-        progressBar.moveHorizontal(50 - 70);
-        progressBar.moveVertical(550 - 15);
+        observers = new ArrayList<RoadObserver>();
+        if (canvas != null) {
+            observers.add(new SilkRoadView(canvas));
+        }
         
-        // Inicializa el lienzo para dibujar elementos
-        Canvas.getCanvas();
+        // Las tablas abiertas de un archivo ya traen tiendas y robots
+        for (int i = 0; i < stores.size(); i++) {
+            bestStores.add(i);
+            storePlaced(i, storeColors[storeColorIndex++ % storeColors.length]);
+        }
+        for (int i = 0; i < robots.size(); i++) {
+            robotPlaced(i, robotColors[robotColorIndex++ % robotColors.length]);
+        }
     }
     
     /**
@@ -116,73 +201,56 @@ public class SilkRoad {
      * Useful for quick simulations or testing without specific parameters.
      */
     public SilkRoad() {
-        stores = new ArrayList<Store>();
-        robots = new ArrayList<Robot>();
+        stores = new StoreTable();
+        bestStores = new StoreHeap(stores);
+        robots = new RobotTable();
+        stores.road = true;
+        robots.road = true;
         visible = true;
         profit = 0;
         contest = new SilkRoadContest();
-        spiralPositions = new ArrayList<int[]>();
-        
-        spiralPath = new SpiralPath();
-        spiralPath.changeColor("black");
+        spiralPoints = 0;
         
-        // Inicializa la barra de progreso (fondo y parte verde)
-        progressBackground = new Rectangle();
-        progressBackground.changeColor("gray");
-        progressBackground.changeSize(25, 700);
-        progressBackground.moveHorizontal(50 - 70);
-        progressBackground.moveVertical(550 - 15);
-        
-        progressBar = new Rectangle();
-        progressBar.changeColor("green");
-        progressBar.changeSize(25, 0);
-        progressBar.moveHorizontal(50 - 70);
-        progressBar.moveVertical(550 - 15);
-        
-        Canvas.getCanvas();
+        // La vista dibuja el camino y la barra de progreso
+        observers = new ArrayList<RoadObserver>();
+        observers.add(new SilkRoadView(Canvas.getCanvas()));
+    }
+    
+    /**
+     * Adds an observer told about every change of the road.
+     * @param observer the observer to add
+     */
+    public void addObserver(RoadObserver observer) {
+        observers.add(observer);
+    }
+    
+    /**
+     * Removes an observer of the road.
+     * @param observer the observer to remove
+     */
+    public void removeObserver(RoadObserver observer) {
+        observers.remove(observer);
     }
 
     /**
-     * Generates square spiral coordinates.
+     * Lays the route of the robots along a square spiral and draws it.
      * The spiral expands from a central point and alternates
      * direction in the order: right → down → left → up.
+     * Positions are computed when needed (see SpiralGeometry), so the
+     * route takes no memory whatever its number of positions. Drawing it
+     * again with the same center and spacing only changes its tail.
      * 
      * @param centerX  x coordinate of the spiral center
      * @param centerY  y coordinate of the spiral center
-     * @param numPoints number of positions to generate
+     * @param numPoints number of positions of the route
      * @param spacing distance between each spiral step
-     * @return list of coordinate pairs representing the spiral path
      */
-    private ArrayList<int[]> generateSquareSpiralPositions(int centerX, int centerY, int numPoints, int spacing) {
-        ArrayList<int[]> positions = new ArrayList<int[]>();
-        
-        int x = centerX;
-        int y = centerY;
-        positions.add(new int[]{x, y}); // punto inicial
-        
-        int steps = 1;
-        int direction = 0; // 0=derecha, 1=abajo, 2=izquierda, 3=arriba
-        int pointsGenerated = 1;
-        
-        // Genera los puntos siguiendo la lógica de espiral cuadrada
-        while (pointsGenerated < numPoints) {
-            for (int i = 0; i < 2 && pointsGenerated < numPoints; i++) {
-                for (int j = 0; j < steps && pointsGenerated < numPoints; j++) {
-                    switch (direction) {
-                        case 0: x += spacing; break; // Derecha
-                        case 1: y += spacing; break; // Abajo
-                        case 2: x -= spacing; break; // Izquierda
-                        case 3: y -= spacing; break; // Arriba
-                    }
-                    positions.add(new int[]{x, y});
-                    pointsGenerated++;
-                }
-                direction = (direction + 1) % 4; // cambia de dirección
-            }
-            steps++; // incrementa los pasos tras dos direcciones
+    public void drawSpiral(int centerX, int centerY, int numPoints, int spacing) {
+        spiral = SpiralGeometry.of(centerX, centerY, spacing);
+        spiralPoints = Math.max(numPoints, 0);
+        for (RoadObserver observer : observers) {
+            observer.spiralDrawn(spiral, spiralPoints);
         }
-        
-        return positions;
     }
     
     /**
@@ -201,8 +269,9 @@ public class SilkRoad {
         String color = storeColors[storeColorIndex % storeColors.length];
         storeColorIndex++;
         
-        Store newStore = new Store(stores.size(), tenges, x, 50, color);
-        stores.add(newStore);
+        int fila = stores.add(StoreTable.PLAIN, stores.size(), tenges, x, 50);
+        bestStores.add(fila);
+        storePlaced(fila, color);
     }
 
     /**
@@ -220,29 +289,74 @@ public class SilkRoad {
         int x = location;
         int y = 100 + (stores.size() * 60); // Distribuye tiendas verticalmente
     
-        Store newStore;
+        int fila;
     
         switch (type.toLowerCase()) {
             case "discount":
-                newStore = new Discount(stores.size(), tenges, x, y, color);
+                fila = stores.add(StoreTable.DISCOUNT, stores.size(), tenges, x, y);
                 break;
             case "fighter":
-                newStore = new Fighter(stores.size(), tenges, x, y, color);
+                fila = stores.add(StoreTable.FIGHTER, stores.size(), tenges, x, y);
                 break;
             case "autonomous":
-                newStore = new Autonomous(stores.size(), tenges, x, y, color);
+                // Elige su lugar al crearse, así que necesita su propio objeto
+                Store autonomous = new Autonomous(stores.size(), tenges, x, y);
+                stores.add(autonomous);
+                fila = autonomous.row;
                 break;
             default:
-                newStore = new Store(stores.size(), tenges, x, y, color);
+                fila = stores.add(StoreTable.PLAIN, stores.size(), tenges, x, y);
                 System.out.println("Tipo no reconocido, creando Store normal por defecto.");
                 break;
         }
 
-        stores.add(newStore);
-    }   
+        bestStores.add(fila);
+        storePlaced(fila, color);
+    }
 
     /**
-     * Removes a store by its index.
+     * Adds a store created elsewhere, of any kind, including kinds the
+     * road does not know by name. The store keeps its collect policy.
+     * 
+     * @param store a new store, not placed on any road
+     * @throws SilkRoadException if its tenges value is invalid (negative),
+     *         or it is already on a road (this one or another)
+     */
+    public void placeStore(Store store) throws SilkRoadException {
+        if (store.table.road) {
+            throw new SilkRoadException(SilkRoadException.ALREADY_PLACED_EXCEPTION);
+        }
+        if (store.getTenges() < 0) {
+            throw new SilkRoadException(SilkRoadException.INVALID_TENGES_EXCEPTION);
+        }
+        String color = storeColors[storeColorIndex % storeColors.length];
+        storeColorIndex++;
+
+        stores.add(store);
+        bestStores.add(store.row);
+        storePlaced(store.row, color);
+    }
+    
+    /**
+     * Tells the observers about a new store. Without observers nobody
+     * asks for the store, and its row gets no object.
+     */
+    private void storePlaced(int fila, String color) {
+        if (observers.isEmpty()) {
+            return;
+        }
+        Store store = stores.get(fila);
+        for (RoadObserver observer : observers) {
+            observer.storePlaced(store, color);
+        }
+    }
+
+    /**
+     * Removes a store by its index. The stores after it move up one
+     * index, so removing costs O(S) in the number of stores: their rows
+     * move up in the table and the best-store heap renumbers them (see
+     * StoreHeap). Finding the best store stays O(1), and collecting,
+     * resupplying, resetting and placing stores O(log S).
      * 
      * @param index position in the list of stores
      * @throws SilkRoadException if index is invalid
@@ -251,8 +365,8 @@ public class SilkRoad {
         if (index < 0 || index >= stores.size()) {
             throw new SilkRoadException(SilkRoadException.INVALID_INDEX_EXCEPTION);
         }
-        stores.get(index).delete(); // Elimina la representación visual
-        stores.remove(index);
+        stores.show(index, false); // Elimina la representación visual
+        stores.remove(index);      // y su lugar en el montículo
     }
 
     /**
@@ -264,8 +378,8 @@ public class SilkRoad {
         String color = robotColors[robotColorIndex % robotColors.length];
         robotColorIndex++;
         
-        Robot newRobot = new Robot(x, 100, 25, color);
-        robots.add(newRobot);
+        int fila = robots.add(RobotTable.PLAIN, x, 100, 25);
+        robotPlaced(fila, color);
     }
 
     /**
@@ -282,22 +396,57 @@ public class SilkRoad {
         int y = 100;
         int size = 25;
     
-        Robot newRobot;
+        int fila;
     
         switch (type.toLowerCase()) {
             case "neverback":
-                newRobot = new NeverBack(x, y, size, color);
+                // Cambia moveTo, así que necesita su propio objeto
+                Robot neverBack = new NeverBack(x, y, size);
+                robots.add(neverBack);
+                fila = neverBack.row;
                 break;
             case "tender":
-                newRobot = new Tender(x, y, size, color);
+                fila = robots.add(RobotTable.TENDER, x, y, size);
                 break;
             default:
-                newRobot = new Robot(x, y, size, color);
+                fila = robots.add(RobotTable.PLAIN, x, y, size);
                 System.out.println("Tipo no reconocido, creando Robot normal por defecto.");
                 break;
         }
     
-        robots.add(newRobot);
+        robotPlaced(fila, color);
+    }
+
+    /**
+     * Adds a robot created elsewhere, of any kind, including kinds the
+     * road does not know by name. The robot keeps its collect policy.
+     * 
+     * @param robot a new robot, not placed on any road
+     * @throws SilkRoadException if it is already on a road (this one or another)
+     */
+    public void placeRobot(Robot robot) throws SilkRoadException {
+        if (robot.table.road) {
+            throw new SilkRoadException(SilkRoadException.ALREADY_PLACED_EXCEPTION);
+        }
+        String color = robotColors[robotColorIndex % robotColors.length];
+        robotColorIndex++;
+
+        robots.add(robot);
+        robotPlaced(robot.row, color);
+    }
+    
+    /**
+     * Tells the observers about a new robot. Without observers nobody
+     * asks for the robot, and its row gets no object.
+     */
+    private void robotPlaced(int fila, String color) {
+        if (observers.isEmpty()) {
+            return;
+        }
+        Robot robot = robots.get(fila);
+        for (RoadObserver observer : observers) {
+            observer.robotPlaced(robot, color);
+        }
     }
     
     /**
@@ -310,7 +459,7 @@ public class SilkRoad {
         if (index < 0 || index >= robots.size()) {
             throw new SilkRoadException(SilkRoadException.INVALID_INDEX_EXCEPTION);
         }
-        robots.get(index).delete(); // Elimina visualmente el robot
+        robots.show(index, false); // Elimina visualmente el robot
         robots.remove(index);
     }
     
@@ -326,7 +475,7 @@ public class SilkRoad {
         if (index < 0 || index >= robots.size()) {
             throw new SilkRoadException(SilkRoadException.INVALID_INDEX_EXCEPTION);
         }
-        robots.get(index).moveTo(newX, newY);
+        robots.moveTo(index, newX, newY);
     }
     
     /**
@@ -335,6 +484,8 @@ public class SilkRoad {
      * - Discount: collects 75% of the normal profit.
      * - Fighter: only robots with more money can collect.
      * - Tender: collects half of what it would normally take.
+     * Robots reach the store in the tie-break order (see setTieBreak),
+     * one after another or all at once (see setParallel).
      * 
      * @throws SilkRoadException if there are no stores or robots available
      */
@@ -346,64 +497,43 @@ public class SilkRoad {
             throw new SilkRoadException(SilkRoadException.NO_ROBOTS_EXCEPTION);
         }
     
-        // Encuentra la tienda con más dinero disponible (más rentable)
-        Store mejorTienda = stores.get(0);
-        int mejorIndice = 0;
-        for (int i = 0; i < stores.size(); i++) {
-            if (stores.get(i).getTenges() > mejorTienda.getTenges()) {
-                mejorTienda = stores.get(i);
-                mejorIndice = i;
-            }
+        // La tienda con más dinero disponible (más rentable) está en la cima del montículo
+        int mejorIndice = bestStores.best();
+        Store mejorTienda = stores.get(mejorIndice);
+        // La regla de la tienda es la misma para todos los robots de la ronda
+        StorePolicy reglaTienda = mejorTienda.policy;
+        
+        if (parallel) {
+            moveRobotsAtOnce(mejorIndice, mejorTienda, reglaTienda);
+            return;
         }
     
         int mayorRecolectado = 0;
-        Robot robotMasExitoso = null;
-        Map<Robot, Integer> dineroRobots = new HashMap<>();
+        int robotMasExitoso = -1;
     
-        // Itera sobre cada robot y simula su movimiento y recolección
-        for (Robot r : robots) {
-            dineroRobots.putIfAbsent(r, 0);
-            int dineroRobot = dineroRobots.get(r);
+        // Itera sobre cada robot, en el orden de desempate, y simula su movimiento y recolección
+        int[] orden = robotOrder();
+        for (int k = 0; k < robots.size(); k++) {
+            int fila = orden == null ? k : orden[k];
+            // El dinero del robot se conserva entre rondas, en su fila de la tabla
+            int dineroRobot = robots.money(fila);
             
             // Mueve el robot siguiendo la espiral hasta la tienda más rentable
-            if (mejorIndice < spiralPositions.size()) {
-                for (int i = 0; i <= mejorIndice && i < spiralPositions.size(); i++) {
-                    int[] pos = spiralPositions.get(i);
-                    r.moveTo(pos[0], pos[1]);
-                }
-            }
+            walk(fila, mejorIndice);
             
-            int recolectado = 0; // dinero obtenido por el robot en esta ronda
-    
-            // Aplica reglas especiales según el tipo de tienda
-            if (mejorTienda instanceof Discount) {
-                recolectado = (int)(mejorTienda.collect() * 0.75);
-            } else if (mejorTienda instanceof Fighter) {
-                // Solo recoge si tiene más dinero que la tienda
-                if (dineroRobot > mejorTienda.getTenges()) {
-                    recolectado = mejorTienda.collect();
-                } else {
-                    System.out.println("Robot no tiene más dinero que la Fighter.");
-                    recolectado = 0;
-                }
-            } else {
-                recolectado = mejorTienda.collect();
-            }
-    
-            // Si es un robot Tender, solo obtiene la mitad
-            if (r instanceof Tender) {
-                recolectado /= 2;
-            }
+            // Dinero obtenido por el robot en esta ronda: lo que la tienda
+            // entrega según su regla y lo que el robot guarda según la suya
+            int recolectado = robots.policy(fila).keep(reglaTienda.give(mejorTienda, dineroRobot));
 
             // Actualiza el dinero total del robot y la ganancia global
             dineroRobot += recolectado;
-            dineroRobots.put(r, dineroRobot);
+            robots.setMoney(fila, dineroRobot);
             profit += recolectado;
     
             // Registra cuál robot fue el más exitoso
             if (recolectado > mayorRecolectado) {
                 mayorRecolectado = recolectado;
-                robotMasExitoso = r;
+                robotMasExitoso = fila;
             }
         }
     
@@ -411,20 +541,166 @@ public class SilkRoad {
         updateProgressBar();
         
         // Hace parpadear al robot que más recolectó
-        if (robotMasExitoso != null) {
-            robotMasExitoso.blink();
+        if (robotMasExitoso >= 0) {
+            robots.blink(robotMasExitoso);
+        }
+    }
+
+    /**
+     * Moves all robots to the best store at the same time. Every robot
+     * goes to the same store, so only one of them can collect from it:
+     * the first one in the tie-break order the store yields to. Each
+     * robot the store yields to claims the store with its turn; the
+     * store keeps the lowest turn, whatever thread claims first, so the
+     * result is the same as moving the robots one by one.
+     * 
+     * Robots with an object may have observers: they walk, and the
+     * winner collects, on the calling thread.
+     */
+    private void moveRobotsAtOnce(int mejorIndice, Store mejorTienda, StorePolicy reglaTienda) {
+        int[] orden = robotOrder();
+        stores.unclaim(mejorIndice);
+        
+        // Cada robot sin objeto recorre la espiral en su propia fila de la tabla
+        IntStream.range(0, robots.size()).parallel().forEach(turno -> {
+            int fila = orden == null ? turno : orden[turno];
+            if (robots.kept(fila) == null) {
+                walk(fila, mejorIndice);
+            }
+            if (reglaTienda.yieldsTo(mejorTienda, robots.money(fila))) {
+                stores.claim(mejorIndice, turno);
+            }
+        });
+        for (int fila : robots.keptRows()) {
+            walk(fila, mejorIndice);
+        }
+        
+        // Solo el ganador toca el dinero de la tienda
+        int turno = stores.claimant(mejorIndice);
+        int ganador = -1;
+        int recolectado = 0;
+        if (turno != Integer.MAX_VALUE) {
+            ganador = orden == null ? turno : orden[turno];
+            int dineroRobot = robots.money(ganador);
+            recolectado = robots.policy(ganador).keep(reglaTienda.give(mejorTienda, dineroRobot));
+            robots.setMoney(ganador, dineroRobot + recolectado);
+            profit += recolectado;
+        }
+        
+        updateProgressBar();
+        if (recolectado > 0) {
+            robots.blink(ganador);
+        }
+    }
+
+    /**
+     * Moves a robot along the spiral up to a position, if the spiral
+     * reaches it. A robot without object has nobody watching each step,
+     * so it goes straight to the end.
+     */
+    private void walk(int fila, int hasta) {
+        if (hasta < spiralPoints) {
+            Robot robot = robots.kept(fila);
+            if (robot == null) {
+                robots.setPlace(fila, spiral.xOf(hasta), spiral.yOf(hasta));
+                return;
+            }
+            for (int i = 0; i <= hasta; i++) {
+                robot.moveTo(spiral.xOf(i), spiral.yOf(i));
+            }
+        }
+    }
+
+    /**
+     * Returns the order in which robots reach a store: the tie-break,
+     * then the order in which they were placed.
+     * 
+     * @return the rows of the robots in that order, or null for the
+     *         placement order (no tie-break)
+     */
+    private int[] robotOrder() {
+        if (tieBreak == null) {
+            return null;
+        }
+        int n = robots.size();
+        if (order.length < n) {
+            order = new int[n];
+            sorting = new int[n];
+        }
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        // Ordenamiento por mezcla de abajo hacia arriba: estable, así los
+        // empates conservan el orden de colocación
+        int[] desde = order;
+        int[] hacia = sorting;
+        for (int ancho = 1; ancho < n; ancho *= 2) {
+            for (int inicio = 0; inicio < n; inicio += 2 * ancho) {
+                merge(desde, hacia, inicio, Math.min(inicio + ancho, n), Math.min(inicio + 2 * ancho, n));
+            }
+            int[] cambio = desde;
+            desde = hacia;
+            hacia = cambio;
+        }
+        return desde;
+    }
+
+    /**
+     * Merges two runs of rows sorted by the tie-break, from[inicio, mitad)
+     * and from[mitad, fin), into to[inicio, fin).
+     */
+    private void merge(int[] from, int[] to, int inicio, int mitad, int fin) {
+        int a = inicio;
+        int b = mitad;
+        for (int k = inicio; k < fin; k++) {
+            if (b >= fin || (a < mitad && tieBreak.compare(robots.peek(from[a], 0), robots.peek(from[b], 1)) <= 0)) {
+                to[k] = from[a++];
+            } else {
+                to[k] = from[b++];
+            }
         }
     }
 
+    /**
+     * Chooses which robot reaches a store first when several robots go
+     * to it in the same move. Robots the tie-break finds equal, or all of
+     * them without a tie-break, are taken in the order they were placed.
+     * The tie-break sees the robots as they are at the start of the move.
+     * The robots it is given are only good during the comparison: it
+     * must not keep them.
+     * 
+     * @param tieBreak order of the robots, or null for the placement order
+     */
+    public void setTieBreak(Comparator<Robot> tieBreak) {
+        this.tieBreak = tieBreak;
+    }
+
+    /**
+     * Makes moveRobots move all robots at the same time, on all the
+     * processors of the machine, instead of one after another. The
+     * result does not change: the robot that collects from a store is
+     * still chosen by the tie-break (see setTieBreak), and only that
+     * robot collects, so a store must hand nothing over once emptied
+     * (as every kind of store does). Observers are still told on the
+     * calling thread, and the tie-break is called on it too.
+     * 
+     * @param parallel true to move the robots at the same time
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
     /**
      * Resupplies all stores, restoring their tenges.
      * Used to simulate the start of a new day or restock event.
      */
     public void resupplyStores() {
-        // Reabastece todas las tiendas a su valor inicial
-        for (Store s : stores) {
-            s.resupply();
-        }
+        // Reabastece todas las tiendas a su valor inicial, en un solo cuadro
+        batch(() -> {
+            for (int i = 0; i < stores.size(); i++) {
+                stores.resupply(i);
+            }
+        });
     }
 
     /**
@@ -432,13 +708,14 @@ public class SilkRoad {
      * Used after a day ends or to restart a simulation.
      */
     public void returnRobots() {
-        if (!spiralPositions.isEmpty()) {
-            int[] startPos = spiralPositions.get(0);
+        if (spiralPoints > 0) {
+            int startX = spiral.xOf(0);
+            int startY = spiral.yOf(0);
             for (int i = 0; i < robots.size(); i++) {
                 // Reposiciona los robots en línea frente al punto de inicio
-                int xPos = startPos[0] + (i * 30) - ((robots.size() - 1) * 15);
-                int yPos = startPos[1] - 50;
-                robots.get(i).moveTo(xPos, yPos);
+                int xPos = startX + (i * 30) - ((robots.size() - 1) * 15);
+                int yPos = startY - 50;
+                robots.moveTo(i, xPos, yPos);
             }
         }
     }
@@ -448,12 +725,17 @@ public class SilkRoad {
      * Resets all stores, returns robots, and resets the total profit.
      */
     public void reboot() {
-        for (Store s : stores) {
-            s.reset(); // Restaura el estado original de cada tienda
-        }
-        returnRobots(); // Devuelve los robots a su posición inicial
-        profit = 0; // Reinicia la ganancia total
-        updateProgressBar();
+        batch(() -> {
+            for (int i = 0; i < stores.size(); i++) {
+                stores.reset(i); // Restaura el estado original de cada tienda
+            }
+            returnRobots(); // Devuelve los robots a su posición inicial
+            for (int i = 0; i < robots.size(); i++) {
+                robots.setMoney(i, 0); // Los robots empiezan sin dinero
+            }
+            profit = 0; // Reinicia la ganancia total
+            updateProgressBar();
+        });
     }
 
     /**
@@ -475,10 +757,10 @@ public class SilkRoad {
      */
     public int[][] stores() {
         int[][] positions = new int[stores.size()][2];
-        // Extrae las coordenadas gráficas de cada tienda
+        // Extrae las coordenadas gráficas de cada tienda, columna por columna
         for (int i = 0; i < stores.size(); i++) {
-            positions[i][0] = stores.get(i).getScreenX();
-            positions[i][1] = stores.get(i).getScreenY();
+            positions[i][0] = stores.screenX(i);
+            positions[i][1] = stores.screenY(i);
         }
         return positions;
     }
@@ -493,7 +775,7 @@ public class SilkRoad {
         int[][] datos = new int[stores.size()][2];
         for (int i = 0; i < stores.size(); i++) {
             datos[i][0] = i; // índice de la tienda
-            datos[i][1] = stores.get(i).getEmptiedCount(); // veces desocupada
+            datos[i][1] = stores.emptiedCount(i); // veces desocupada
         }
         return datos;
     }
@@ -507,12 +789,72 @@ public class SilkRoad {
     public int[][] robots() {
         int[][] positions = new int[robots.size()][2];
         for (int i = 0; i < robots.size(); i++) {
-            positions[i][0] = robots.get(i).getX();
-            positions[i][1] = robots.get(i).getY();
+            positions[i][0] = robots.x(i);
+            positions[i][1] = robots.y(i);
         }
         return positions;
     }
     
+    /**
+     * Returns the money a robot has collected in all its moves.
+     * The Fighter rule compares this money with the money of the store.
+     * 
+     * @param index index of the robot
+     * @return money of the robot
+     * @throws SilkRoadException if the index is invalid
+     */
+    public int robotMoney(int index) throws SilkRoadException {
+        if (index < 0 || index >= robots.size()) {
+            throw new SilkRoadException(SilkRoadException.INVALID_INDEX_EXCEPTION);
+        }
+        return robots.money(index);
+    }
+    
+    /**
+     * Returns the index of the store shown at a screen point,
+     * even when a robot is drawn over it. The road answers from the
+     * places it keeps, with or without a canvas: a store is shown as a
+     * square of side Store.SIDE (see Store.SHOWN_X), and the store placed
+     * last is shown over the others.
+     *
+     * @param x X coordinate on screen
+     * @param y Y coordinate on screen
+     * @return index of the store, or -1 if no store is shown there
+     */
+    public int storeAt(int x, int y) {
+        if (!visible) {
+            return -1;
+        }
+        for (int i = stores.size() - 1; i >= 0; i--) {
+            if (stores.covers(i, x, y)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the robot shown at a screen point. The road
+     * answers from the places it keeps, with or without a canvas: a
+     * robot is shown as a circle of its size with its corner at its
+     * position, and the robot placed last is shown over the others.
+     *
+     * @param x X coordinate on screen
+     * @param y Y coordinate on screen
+     * @return index of the robot, or -1 if no robot is shown there
+     */
+    public int robotAt(int x, int y) {
+        if (!visible) {
+            return -1;
+        }
+        for (int i = robots.size() - 1; i >= 0; i--) {
+            if (robots.covers(i, x, y)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Returns a 2D array simulating the profit earned by each robot in its last move.
      * Each row corresponds to [robotIndex, profitValue].
@@ -535,19 +877,21 @@ public class SilkRoad {
      */
     public void makeVisible() {
         this.visible = true;
-        Canvas.getCanvas().setVisible(true);
-        spiralPath.makeVisible();
-        progressBackground.makeVisible();
-        progressBar.makeVisible();
-        
-        // Muestra todas las tiendas
-        for (Store s : stores) {
-            s.makeVisible();
-        }
-        // Muestra todos los robots
-        for (Robot r : robots) {
-            r.makeVisible();
-        }
+        // Todos los cambios se pintan juntos en un solo cuadro
+        batch(() -> {
+            for (RoadObserver observer : observers) {
+                observer.roadShown(true);
+            }
+            
+            // Muestra todas las tiendas
+            for (int i = 0; i < stores.size(); i++) {
+                stores.show(i, true);
+            }
+            // Muestra todos los robots
+            for (int i = 0; i < robots.size(); i++) {
+                robots.show(i, true);
+            }
+        });
     }
 
     /**
@@ -556,49 +900,45 @@ public class SilkRoad {
      */
     public void makeInvisible() {
         this.visible = false;
-        spiralPath.makeInvisible();
-        progressBackground.makeInvisible();
-        progressBar.makeInvisible();
-        
-        // Elimina representación visual (no los objetos en memoria)
-        for (Store s : stores) {
-            s.delete();
-        }
-        for (Robot r : robots) {
-            r.delete();
-        }
+        batch(() -> {
+            for (RoadObserver observer : observers) {
+                observer.roadShown(false);
+            }
+            
+            // Elimina representación visual (no los objetos en memoria)
+            for (int i = 0; i < stores.size(); i++) {
+                stores.show(i, false);
+            }
+            for (int i = 0; i < robots.size(); i++) {
+                robots.show(i, false);
+            }
+        });
     }
     /**
-     * Updates the progress bar according to the current profit.
-     * The width and color of the bar represent the percentage of maximum profit achieved.
-     * 
-     * Color changes dynamically based on percentage:
-     * - Yellow: < 50%
-     * - Cyan: between 50% and 75%
-     * - Blue: between 75% and 100%
-     * - Green: full profit achieved
+     * Tells the observers about the current profit, to update the progress bar.
      */
     private void updateProgressBar() {
         if (maxPossibleProfit == 0) {
             maxPossibleProfit = 1; // evita división por cero
         }
-        
-        // Calcula el ancho de la barra proporcional a la ganancia actual
-        int barWidth = (int)((double)profit / maxPossibleProfit * 700);
-        barWidth = Math.min(barWidth, 700); // límite máximo
-        progressBar.changeSize(25, barWidth);
-        
-        double percentage = (double)profit / maxPossibleProfit;
-        
-        // Cambia el color según el progreso actual
-        if (percentage >= 1.0) {
-            progressBar.changeColor("green");
-        } else if (percentage >= 0.75) {
-            progressBar.changeColor("blue");
-        } else if (percentage >= 0.50) {
-            progressBar.changeColor("cyan");
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).profitChanged(profit, maxPossibleProfit);
+        }
+    }
+    
+    /**
+     * Runs changes of the road so they are drawn together in one frame:
+     * every observer gets to wrap them (see RoadObserver.batch).
+     */
+    private void batch(Runnable changes) {
+        batch(changes, 0);
+    }
+
+    private void batch(Runnable changes, int observador) {
+        if (observador == observers.size()) {
+            changes.run();
         } else {
-            progressBar.changeColor("yellow");
+            observers.get(observador).batch(() -> batch(changes, observador + 1));
         }
     }
     
@@ -608,22 +948,42 @@ public class SilkRoad {
      * This action represents the end of the simulator.
      */
     public void finish() {
-        // Limpia la ruta y oculta la barra de progreso
-        spiralPath.clear();
-        progressBackground.makeInvisible();
-        progressBar.makeInvisible();
-        
-        // Elimina todas las tiendas y robots de la pantalla
-        for (Store s : stores) {
-            s.delete();
-        }
-        for (Robot r : robots) {
-            r.delete();
-        }
+        batch(() -> {
+            // Las vistas limpian la ruta y ocultan la barra de progreso
+            for (RoadObserver observer : observers) {
+                observer.roadFinished();
+            }
+            
+            // Elimina todas las tiendas y robots de la pantalla
+            for (int i = 0; i < stores.size(); i++) {
+                stores.show(i, false);
+            }
+            for (int i = 0; i < robots.size(); i++) {
+                robots.show(i, false);
+            }
+        });
         // Vacía las listas de datos
+        bestStores.clear();
         stores.clear();
         robots.clear();
+        spiralPoints = 0;
     }
+    /**
+     * Lets go of the files of a road created by mapped; they keep its
+     * stores and robots for the next road opened on them. The road must
+     * not be used afterwards. Other roads have nothing to let go of.
+     * 
+     * @throws IOException if the files can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            stores.close();
+        } finally {
+            robots.close();
+        }
+    }
+
     /**
      * Checks if the SilkRoad simulator is correctly initialized.
      * Ensures that the lists of stores and robots exist (not null).
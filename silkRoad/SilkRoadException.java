@@ -25,6 +25,7 @@ public class SilkRoadException extends Exception {
     public static final String EMPTY_STORE_EXCEPTION = "La tienda está vacía";
     public static final String INVALID_ARRAYS_EXCEPTION = "Los arreglos de entrada no son válidos";
     public static final String ARRAY_SIZE_MISMATCH_EXCEPTION = "Los arreglos de tiendas deben tener el mismo tamaño";
+    public static final String ALREADY_PLACED_EXCEPTION = "La tienda o el robot ya está en una ruta";
 
     /**
      * Creates a new SilkRoadException with a specific message.
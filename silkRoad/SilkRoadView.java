@@ -0,0 +1,166 @@
+package silkRoad;
+
+import shapes.Canvas;
+import shapes.Rectangle;
+import shapes.Shape;
+
+/**
+ * The SilkRoadView class draws a SilkRoad on a canvas: its spiral path,
+ * its progress bar and a view for each store and robot placed on it.
+ * It is attached to the road as a RoadObserver.
+ * 
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+public class SilkRoadView implements RoadObserver {
+    private Canvas canvas;          // Canvas where the road is drawn
+    private SpiralPath spiralPath;  // Draws and manages the spiral path
+    
+    // Progress bar representation
+    private Rectangle progressBackground; // Background of the progress bar
+    private Rectangle progressBar;        // Filled part of the bar indicating gain
+    
+    /**
+     * Creates the view of a road, with an empty path and progress bar.
+     * 
+     * @param canvas canvas where the road is drawn
+     */
+    public SilkRoadView(Canvas canvas) {
+        this.canvas = canvas;
+        // storeAt y robotAt buscan las figuras por posición
+        canvas.enablePicking();
+        
+        spiralPath = new SpiralPath(canvas);
+        spiralPath.changeColor("black");
+        
+        // Configura el fondo de la barra de progreso
+        progressBackground = new Rectangle(canvas);
+        progressBackground.setLayer(Canvas.STATIC_LAYER); // fondo fijo, en caché
+        progressBackground.changeColor("gray");
+        progressBackground.changeSize(25, 700);
+        progressBackground.moveHorizontal(50 - 70);
+        progressBackground.moveVertical(550 - 15);
+        
+        // Configura la barra verde que representa la ganancia
+        progressBar = new Rectangle(canvas);
+        progressBar.setLayer(3); // la barra se pinta encima de todo
+        progressBar.changeColor("green");
+        progressBar.changeSize(25, 0);
+        progressBar.moveHorizontal(50 - 70);
+        progressBar.moveVertical(550 - 15);
+    }
+    
+    @Override
+    public void storePlaced(Store store, String color) {
+        store.addObserver(new StoreView(store, store.colorFor(color), canvas));
+    }
+    
+    @Override
+    public void robotPlaced(Robot robot, String color) {
+        robot.addObserver(new RobotView(robot, robot.colorFor(color), canvas));
+    }
+    
+    @Override
+    public void spiralDrawn(SpiralGeometry spiral, int numPoints) {
+        spiralPath.drawSquareSpiral(spiral.getCenterX(), spiral.getCenterY(), 
+                                    numPoints, spiral.getSpacing());
+    }
+    
+    /**
+     * Updates the progress bar according to the current profit.
+     * The width and color of the bar represent the percentage of maximum profit achieved.
+     * 
+     * Color changes dynamically based on percentage:
+     * - Yellow: < 50%
+     * - Cyan: between 50% and 75%
+     * - Blue: between 75% and 100%
+     * - Green: full profit achieved
+     */
+    @Override
+    public void profitChanged(int profit, int maxPossibleProfit) {
+        // Calcula el ancho de la barra proporcional a la ganancia actual
+        int barWidth = (int)((double)profit / maxPossibleProfit * 700);
+        barWidth = Math.min(barWidth, 700); // límite máximo
+        progressBar.changeSize(25, barWidth);
+        
+        double percentage = (double)profit / maxPossibleProfit;
+        
+        // Cambia el color según el progreso actual
+        if (percentage >= 1.0) {
+            progressBar.changeColor("green");
+        } else if (percentage >= 0.75) {
+            progressBar.changeColor("blue");
+        } else if (percentage >= 0.50) {
+            progressBar.changeColor("cyan");
+        } else {
+            progressBar.changeColor("yellow");
+        }
+    }
+    
+    @Override
+    public void roadShown(boolean shown) {
+        if (shown) {
+            canvas.setVisible(true);
+            spiralPath.makeVisible();
+            progressBackground.makeVisible();
+            progressBar.makeVisible();
+        } else {
+            spiralPath.makeInvisible();
+            progressBackground.makeInvisible();
+            progressBar.makeInvisible();
+        }
+    }
+    
+    /**
+     * The changes are painted together, in one frame.
+     */
+    @Override
+    public void batch(Runnable changes) {
+        canvas.batch(changes);
+    }
+
+    /**
+     * Returns the store drawn at a point of the canvas, even when a
+     * robot is drawn over it. Only the shapes at that point's tile are
+     * looked at.
+     * 
+     * @param x X coordinate on the canvas
+     * @param y Y coordinate on the canvas
+     * @return the store, or null if no store is drawn there
+     */
+    public Store storeAt(int x, int y) {
+        return ownerAt(Store.class, x, y);
+    }
+
+    /**
+     * Returns the robot drawn at a point of the canvas.
+     * 
+     * @param x X coordinate on the canvas
+     * @param y Y coordinate on the canvas
+     * @return the robot, or null if no robot is drawn there
+     */
+    public Robot robotAt(int x, int y) {
+        return ownerAt(Robot.class, x, y);
+    }
+
+    /**
+     * Finds, among the shapes drawn at a point, the first one drawing an
+     * object of a class, and gives that object.
+     */
+    private <T> T ownerAt(Class<T> kind, int x, int y) {
+        for (Object shape : canvas.shapesAt(x, y)) {
+            if (shape instanceof Shape && kind.isInstance(((Shape) shape).getOwner())) {
+                return kind.cast(((Shape) shape).getOwner());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void roadFinished() {
+        // Limpia la ruta y oculta la barra de progreso
+        spiralPath.clear();
+        progressBackground.makeInvisible();
+        progressBar.makeInvisible();
+    }
+}
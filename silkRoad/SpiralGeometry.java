@@ -0,0 +1,188 @@
+package silkRoad;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The SpiralGeometry class gives the positions of a square spiral without
+ * storing them. The spiral starts at its center and turns right, down,
+ * left and up, with straight runs of 1, 1, 2, 2, 3, 3, ... steps.
+ *
+ * Both the position of an index and the index of a position are found
+ * with a formula, in constant time and without creating any object, so
+ * a spiral of millions of positions costs no memory at all.
+ *
+ * Instances are immutable and shared: of() gives the same instance to
+ * every road with the same center and spacing, from a cache of the most
+ * recently used ones kept by the whole program. The number of positions
+ * of a road is not part of its geometry, since the formula works for any
+ * index.
+ *
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+public final class SpiralGeometry {
+    /** Most geometries kept in the shared cache. */
+    public static final int CACHE_SIZE = 256;
+    // geometrías usadas hace menos tiempo, la más antigua primero
+    private static final Map<SpiralGeometry, SpiralGeometry> CACHE = 
+        new LinkedHashMap<SpiralGeometry, SpiralGeometry>(CACHE_SIZE * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SpiralGeometry, SpiralGeometry> eldest) {
+                return size() > CACHE_SIZE;
+            }
+        };
+    
+    private final int centerX;
+    private final int centerY;
+    private final int spacing;
+
+    private SpiralGeometry(int centerX, int centerY, int spacing) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.spacing = spacing;
+    }
+
+    /**
+     * Returns the geometry of a square spiral, shared with everyone that
+     * asked for the same one recently.
+     *
+     * @param centerX the X coordinate of the spiral center (index 0)
+     * @param centerY the Y coordinate of the spiral center (index 0)
+     * @param spacing distance between consecutive positions
+     * @return the geometry of that spiral
+     */
+    public static SpiralGeometry of(int centerX, int centerY, int spacing) {
+        if (spacing <= 0) {
+            throw new IllegalArgumentException("spacing must be positive");
+        }
+        SpiralGeometry wanted = new SpiralGeometry(centerX, centerY, spacing);
+        synchronized (CACHE) {
+            SpiralGeometry geometry = CACHE.putIfAbsent(wanted, wanted);
+            return geometry != null ? geometry : wanted;
+        }
+    }
+
+    /**
+     * Returns the X coordinate of a position of the spiral.
+     * @param index position along the spiral, 0 for the center
+     * @return X coordinate of that position
+     */
+    public int xOf(int index) {
+        checkIndex(index);
+        // La espiral completa m pares de tramos antes de llegar a index
+        long m = pairsBefore(index);
+        long sign = (m % 2 == 0) ? 1 : -1;
+        long start = (m % 2 == 0) ? -m / 2 : (m + 1) / 2;
+        long offset = index - m * (m + 1);
+        long x = (offset <= m) ? start + sign * offset : start + sign * (m + 1);
+        return (int)(centerX + x * spacing);
+    }
+
+    /**
+     * Returns the Y coordinate of a position of the spiral.
+     * @param index position along the spiral, 0 for the center
+     * @return Y coordinate of that position
+     */
+    public int yOf(int index) {
+        checkIndex(index);
+        long m = pairsBefore(index);
+        long sign = (m % 2 == 0) ? 1 : -1;
+        long start = (m % 2 == 0) ? -m / 2 : (m + 1) / 2;
+        long offset = index - m * (m + 1);
+        long y = (offset <= m) ? start : start + sign * (offset - m - 1);
+        return (int)(centerY + y * spacing);
+    }
+
+    /**
+     * Returns the index of the spiral position at a point.
+     * @param x X coordinate of the point
+     * @param y Y coordinate of the point
+     * @return index of that position, or -1 if the point is not one
+     *         (not a whole number of steps from the center, or too far
+     *         away for an int index)
+     */
+    public int indexOf(int x, int y) {
+        long dx = (long)x - centerX;
+        long dy = (long)y - centerY;
+        if (dx % spacing != 0 || dy % spacing != 0) {
+            return -1;
+        }
+        long a = dx / spacing;
+        long b = dy / spacing;
+        long index;
+        // Cada punto está en uno de los cuatro lados de su anillo
+        if (b <= 0 && a >= b && a <= -b) {
+            long m = -2 * b;                      // fila de arriba, hacia la derecha
+            index = m * (m + 1) + a - b;
+        } else if (a > 0 && b >= 1 - a && b <= a - 1) {
+            long m = 2 * (a - 1);                 // columna derecha, hacia abajo
+            index = (m + 1) * (m + 1) + b + a - 1;
+        } else if (b > 0 && a > -b && a <= b) {
+            long m = 2 * b - 1;                   // fila de abajo, hacia la izquierda
+            index = m * (m + 1) + b - a;
+        } else {
+            long m = -2 * a - 1;                  // columna izquierda, hacia arriba
+            index = (m + 1) * (m + 1) - a - b;
+        }
+        return index > Integer.MAX_VALUE ? -1 : (int)index;
+    }
+
+    /**
+     * @return the X coordinate of the spiral center
+     */
+    public int getCenterX() {
+        return centerX;
+    }
+
+    /**
+     * @return the Y coordinate of the spiral center
+     */
+    public int getCenterY() {
+        return centerY;
+    }
+
+    /**
+     * @return the distance between consecutive positions
+     */
+    public int getSpacing() {
+        return spacing;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof SpiralGeometry)) {
+            return false;
+        }
+        SpiralGeometry geometry = (SpiralGeometry)other;
+        return centerX == geometry.centerX && centerY == geometry.centerY 
+            && spacing == geometry.spacing;
+    }
+
+    @Override
+    public int hashCode() {
+        return (centerX * 31 + centerY) * 31 + spacing;
+    }
+
+    /**
+     * Returns the largest m with m * (m + 1) <= index: the number of
+     * pairs of runs (right and down, or left and up) before index.
+     */
+    private static long pairsBefore(long index) {
+        long m = (long)((Math.sqrt(4.0 * index + 1) - 1) / 2);
+        // corrige el redondeo de la raíz
+        while (m * (m + 1) > index) {
+            m--;
+        }
+        while ((m + 1) * (m + 2) <= index) {
+            m++;
+        }
+        return m;
+    }
+
+    private static void checkIndex(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+    }
+}
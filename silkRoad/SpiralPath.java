@@ -1,13 +1,15 @@
 package silkRoad;
 
 import java.util.ArrayList;
+import shapes.Canvas;
 import shapes.Rectangle;
 
 /**
  * The SpiralPath class is responsible for drawing a square spiral path.
  * It visually connects the store positions along the Silk Road.
  * 
- * This class uses rectangles to represent the line segments of the path.
+ * This class uses rectangles to represent the line segments of the path,
+ * one rectangle for each straight run.
  * Each segment can be shown, hidden, or recolored depending on the simulator state.
  * 
  * @author Alejandra Beltrán - Adrian Ducuara
@@ -17,11 +19,29 @@ public class SpiralPath {
     private ArrayList<Rectangle> pathSegments;
     private boolean visible;
     private String color;
+    private Canvas canvas;
+    // la espiral dibujada: su geometría, sus puntos y el tramo de la cola
+    private SpiralGeometry spiral;
+    private int spiralPoints;
+    private int runCapacity;   // pasos del tramo recto actual cuando está completo
+    private int runLength;     // pasos ya dados en el tramo actual
+    private boolean secondRun; // cada tamaño de tramo se usa dos veces
     
     /**
      * Creates a new SpiralPath with default color black and hidden by default.
+     * It is drawn on the shared canvas.
      */
     public SpiralPath() {
+        this(Canvas.getCanvas());
+    }
+    
+    /**
+     * Creates a new SpiralPath drawn on a given canvas.
+     * 
+     * @param canvas canvas where the path is drawn (null to draw nothing)
+     */
+    public SpiralPath(Canvas canvas) {
+        this.canvas = canvas;
         pathSegments = new ArrayList<Rectangle>();
         visible = false;
         color = "black";
@@ -32,7 +52,8 @@ public class SpiralPath {
      * Used to connect stores in the same horizontal level.
      */
     private void drawHorizontalLine(int x1, int x2, int y) {
-        Rectangle line = new Rectangle();
+        Rectangle line = new Rectangle(canvas);
+        line.setLayer(Canvas.STATIC_LAYER); // el camino casi no cambia
         line.changeColor(color);
         
         int width = Math.abs(x2 - x1);
@@ -54,7 +75,8 @@ public class SpiralPath {
      * Used to connect stores in the same vertical column.
      */
     private void drawVerticalLine(int x, int y1, int y2) {
-        Rectangle line = new Rectangle();
+        Rectangle line = new Rectangle(canvas);
+        line.setLayer(Canvas.STATIC_LAYER); // el camino casi no cambia
         line.changeColor(color);
         
         int height = Math.abs(y2 - y1);
@@ -92,6 +114,8 @@ public class SpiralPath {
     /**
      * Draws a square spiral path starting from the given center point.
      * The spiral grows in steps in four directions: right, down, left, and up.
+     * If a spiral with the same center and spacing is already drawn, it is
+     * extended or shortened from its tail instead of being drawn again.
      * 
      * @param centerX the X coordinate of the spiral center
      * @param centerY the Y coordinate of the spiral center
@@ -99,52 +123,189 @@ public class SpiralPath {
      * @param spacing distance between points
      */
     public void drawSquareSpiral(int centerX, int centerY, int numPoints, int spacing) {
+        // Toda la espiral aparece en un solo cuadro
+        canvas().batch(() -> {
+            if (spiralPoints == 0 || centerX != spiral.getCenterX() 
+                    || centerY != spiral.getCenterY() || spacing != spiral.getSpacing()) {
+                startSpiral(SpiralGeometry.of(centerX, centerY, spacing));
+            }
+            int points = Math.max(numPoints, 1);
+            if (points > spiralPoints) {
+                growSpiral(points - spiralPoints);
+            } else {
+                shrinkSpiral(spiralPoints - points);
+            }
+        });
+    }
+    
+    /**
+     * Adds points at the tail of the drawn spiral. Only the last segment
+     * is stretched, and a new one is added at each corner, so adding one
+     * point costs the same whatever the size of the spiral.
+     * 
+     * @param count number of points to add
+     */
+    public void extendSpiral(int count) {
+        if (spiralPoints == 0) {
+            throw new IllegalStateException("no spiral is drawn");
+        }
+        canvas().batch(() -> growSpiral(count));
+    }
+    
+    /**
+     * Removes points from the tail of the drawn spiral. The last segment
+     * is shortened, or removed when it is left empty; the center point
+     * is always kept.
+     * 
+     * @param count number of points to remove
+     */
+    public void retractSpiral(int count) {
+        if (spiralPoints == 0) {
+            throw new IllegalStateException("no spiral is drawn");
+        }
+        canvas().batch(() -> shrinkSpiral(Math.min(count, spiralPoints - 1)));
+    }
+    
+    /**
+     * Returns how many points the drawn spiral connects.
+     * @return number of points, 0 if no spiral is drawn
+     */
+    public int getSpiralPoints() {
+        return spiralPoints;
+    }
+    
+    /**
+     * Clears the path and starts a spiral of one point at the center.
+     */
+    private void startSpiral(SpiralGeometry geometry) {
         clear();
-        
-        int x = centerX;
-        int y = centerY;
-        int steps = 1;
-        int direction = 0; // 0=right, 1=down, 2=left, 3=up
-        int pointsDrawn = 0;
-        
-        while (pointsDrawn < numPoints - 1) {
-            // Two directions per step increase
-            for (int i = 0; i < 2; i++) { 
-                for (int j = 0; j < steps && pointsDrawn < numPoints - 1; j++) {
-                    int nextX = x;
-                    int nextY = y;
-                    
-                    // Cambia dirección según el valor actual
-                    switch (direction) {
-                        case 0: nextX += spacing; break; // Derecha
-                        case 1: nextY += spacing; break; // Abajo
-                        case 2: nextX -= spacing; break; // Izquierda
-                        case 3: nextY -= spacing; break; // Arriba
-                    }
-                    
-                    connectPoints(x, y, nextX, nextY);
-                    
-                    x = nextX;
-                    y = nextY;
-                    pointsDrawn++;
+        spiral = geometry;
+        spiralPoints = 1;
+        runCapacity = 1;
+        runLength = 0;
+        secondRun = false;
+    }
+    
+    /**
+     * Adds steps at the tail, one straight run at a time.
+     */
+    private void growSpiral(int count) {
+        while (count > 0) {
+            if (runLength == runCapacity) {
+                // Tramo completo: gira y, cada dos giros, el tramo crece
+                if (secondRun) {
+                    runCapacity++;
                 }
-                direction = (direction + 1) % 4; // Rota la dirección
+                secondRun = !secondRun;
+                runLength = 0;
             }
-            steps++;
+            int run = Math.min(count, runCapacity - runLength);
+            int tail = spiralPoints - 1;
+            int next = tail + run;
+            if (runLength == 0) {
+                connectPoints(spiral.xOf(tail), spiral.yOf(tail), 
+                              spiral.xOf(next), spiral.yOf(next));
+            } else {
+                stretchLastSegment(tail - runLength, tail, next);
+            }
+            runLength += run;
+            spiralPoints += run;
+            count -= run;
+        }
+    }
+    
+    /**
+     * Removes steps from the tail, one straight run at a time.
+     */
+    private void shrinkSpiral(int count) {
+        while (count > 0) {
+            int run = Math.min(count, runLength);
+            int tail = spiralPoints - 1;
+            if (run == runLength) {
+                Rectangle last = pathSegments.remove(pathSegments.size() - 1);
+                last.makeInvisible();
+            } else {
+                stretchLastSegment(tail - runLength, tail, tail - run);
+            }
+            runLength -= run;
+            spiralPoints -= run;
+            count -= run;
+            if (runLength == 0 && spiralPoints > 1) {
+                // Vuelve al tramo anterior, que estaba completo
+                secondRun = !secondRun;
+                if (secondRun) {
+                    runCapacity--;
+                }
+                runLength = runCapacity;
+            }
+        }
+    }
+    
+    /**
+     * Moves the end of the last segment, which goes from the spiral
+     * position start to oldEnd, to newEnd on the same run.
+     */
+    private void stretchLastSegment(int start, int oldEnd, int newEnd) {
+        int startX = spiral.xOf(start);
+        int startY = spiral.yOf(start);
+        int oldX = spiral.xOf(oldEnd);
+        int oldY = spiral.yOf(oldEnd);
+        int newX = spiral.xOf(newEnd);
+        int newY = spiral.yOf(newEnd);
+        Rectangle line = pathSegments.get(pathSegments.size() - 1);
+        if (startY == oldY) {
+            // Línea horizontal: puede crecer hacia la izquierda
+            line.moveHorizontal(Math.min(startX, newX) - Math.min(startX, oldX));
+            line.changeSize(5, Math.abs(newX - startX));
+        } else {
+            // Línea vertical: puede crecer hacia arriba
+            line.moveVertical(Math.min(startY, newY) - Math.min(startY, oldY));
+            line.changeSize(Math.abs(newY - startY), 5);
         }
     }
     
     /**
      * Draws a path connecting specific points in order.
+     * Consecutive points on the same straight line share one segment.
      * @param points array of coordinates {x, y}
      */
     public void drawPath(int[][] points) {
-        clear();
-        
-        for (int i = 0; i < points.length - 1; i++) {
-            connectPoints(points[i][0], points[i][1], 
-                         points[i + 1][0], points[i + 1][1]);
+        canvas().batch(() -> {
+            clear();
+            
+            int start = 0;
+            for (int i = 1; i < points.length; i++) {
+                // El tramo sigue mientras el siguiente punto vaya en la misma dirección
+                boolean last = i == points.length - 1;
+                if (last || !sameDirection(points[start], points[i], points[i + 1])) {
+                    connectPoints(points[start][0], points[start][1], 
+                                 points[i][0], points[i][1]);
+                    start = i;
+                }
+            }
+        });
+    }
+    
+    /**
+     * Tells if going from a to b and then from b to c is one straight
+     * horizontal or vertical move in a single direction.
+     */
+    private static boolean sameDirection(int[] a, int[] b, int[] c) {
+        if (a[1] == b[1] && b[1] == c[1]) {
+            return Integer.signum(b[0] - a[0]) == Integer.signum(c[0] - b[0]);
+        }
+        if (a[0] == b[0] && b[0] == c[0]) {
+            return Integer.signum(b[1] - a[1]) == Integer.signum(c[1] - b[1]);
         }
+        return false;
+    }
+    
+    /**
+     * Returns how many segments (rectangles) make up the path.
+     * @return number of segments
+     */
+    public int getSegmentCount() {
+        return pathSegments.size();
     }
     
     /**
@@ -153,9 +314,11 @@ public class SpiralPath {
      */
     public void changeColor(String newColor) {
         this.color = newColor;
-        for (Rectangle segment : pathSegments) {
-            segment.changeColor(newColor);
-        }
+        canvas().batch(() -> {
+            for (Rectangle segment : pathSegments) {
+                segment.changeColor(newColor);
+            }
+        });
     }
     
     /**
@@ -163,9 +326,11 @@ public class SpiralPath {
      */
     public void makeVisible() {
         visible = true;
-        for (Rectangle segment : pathSegments) {
-            segment.makeVisible();
-        }
+        canvas().batch(() -> {
+            for (Rectangle segment : pathSegments) {
+                segment.makeVisible();
+            }
+        });
     }
     
     /**
@@ -173,9 +338,19 @@ public class SpiralPath {
      */
     public void makeInvisible() {
         visible = false;
-        for (Rectangle segment : pathSegments) {
-            segment.makeInvisible();
-        }
+        canvas().batch(() -> {
+            for (Rectangle segment : pathSegments) {
+                segment.makeInvisible();
+            }
+        });
+    }
+    
+    /**
+     * Returns the canvas where the path is drawn, one that draws nothing
+     * for a path without canvas.
+     */
+    private Canvas canvas() {
+        return canvas != null ? canvas : Canvas.none();
     }
     
     /**
@@ -183,9 +358,12 @@ public class SpiralPath {
      * Used to reset the spiral or path before redrawing.
      */
     public void clear() {
-        for (Rectangle segment : pathSegments) {
-            segment.makeInvisible();
-        }
+        canvas().batch(() -> {
+            for (Rectangle segment : pathSegments) {
+                segment.makeInvisible();
+            }
+        });
         pathSegments.clear();
+        spiralPoints = 0;
     }
 }
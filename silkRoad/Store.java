@@ -1,31 +1,67 @@
 package silkRoad;
 
-import shapes.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import shapes.Canvas;
 
 /**
  * The Store class represents a shop on the Silk Road.
  * Each store has a position, an amount of money (tenges),
- * and a visual representation on the screen using a rectangle.
+ * and a place on the screen.
  * 
  * Stores can be resupplied, moved, reset, or emptied when a robot collects money.
- * This class manages both the logical and graphical state of each store.
+ * This class only keeps the logical state of the store: it is drawn by a
+ * StoreView, or any other StoreObserver, told about every change.
+ * 
+ * The state itself lives in a row of a StoreTable: a store placed on a
+ * road is a row of the table of the road, and a store created alone has
+ * a table of its own. A road makes the Store of a row only when somebody
+ * asks for it.
  * 
  * @author Alejandra Beltrán - Adrian Ducuara
  * @version 2025-2
  */
 public class Store {
-    private int position;
-    private int initialTenges;
-    private int tenges;
-    private Rectangle dibujo;
-    private int screenX;
-    private int screenY;
-    private int initialScreenX;
-    private int initialScreenY;
-    
-    private String color;
-    private String initialColor;
-    private int emptiedCount;
+    /** Side of the square a store is shown as. */
+    public static final int SIDE = 40;
+    /** How far right of its screen position the square of a store starts. */
+    public static final int SHOWN_X = 70;
+    /** How far below its screen position the square of a store starts. */
+    public static final int SHOWN_Y = 15;
+
+    StoreTable table;    // tabla donde está el estado de la tienda
+    int row;             // fila de la tienda en esa tabla
+    private List<StoreObserver> observers;   // vacía y compartida hasta el primero
+    final StorePolicy policy;   // regla de recolección de su clase de tienda
+
+    /**
+     * Creates a new Store that is not drawn (see addObserver).
+     * 
+     * @param position   logical position of the store in the route
+     * @param tenges     initial amount of money in the store
+     * @param x          X coordinate on screen
+     * @param y          Y coordinate on screen
+     */
+    public Store(int position, int tenges, int x, int y) {
+        table = new StoreTable();
+        row = table.add(this, position, tenges, x, y);
+        policy = collectPolicy();
+        observers = Collections.emptyList();
+    }
+
+    /**
+     * Makes the object of a row of a table (see StoreTable).
+     * 
+     * @param table the table of the store
+     * @param row   its row in the table
+     */
+    Store(StoreTable table, int row) {
+        this.table = table;
+        this.row = row;
+        policy = collectPolicy();
+        observers = Collections.emptyList();
+    }
 
     /**
      * Creates a new Store with its position, initial money, and visual location.
@@ -37,24 +73,66 @@ public class Store {
      * @param color      color used to draw the store
      */
     public Store(int position, int tenges, int x, int y, String color) {
-        this.position = position;
-        this.initialTenges = tenges;
-        this.tenges = tenges;
-        this.color = color;
-        initialColor = color;
-        emptiedCount = 0;
+        this(position, tenges, x, y, color, Canvas.getCanvas());
+    }
+
+    /**
+     * Creates a new Store drawn on a given canvas.
+     * 
+     * @param position   logical position of the store in the route
+     * @param tenges     initial amount of money in the store
+     * @param x          X coordinate on screen
+     * @param y          Y coordinate on screen
+     * @param color      color used to draw the store
+     * @param canvas     canvas where the store is drawn (null to draw nothing)
+     */
+    public Store(int position, int tenges, int x, int y, String color, Canvas canvas) {
+        this(position, tenges, x, y);
+        if (canvas != null) {
+            addObserver(new StoreView(this, colorFor(color), canvas));
+        }
+    }
+
+    /**
+     * Returns the rule robots follow to collect from this store. It is
+     * asked once, when the store is created, so every kind of store
+     * should give a single shared policy. Kinds of store with a rule of
+     * their own override it.
+     * 
+     * @return the collection policy of this kind of store
+     */
+    protected StorePolicy collectPolicy() {
+        return StorePolicy.TAKE_ALL;
+    }
+
+    /**
+     * Returns the color a view draws this store with.
+     * Kinds of store with a color of their own override it.
+     * 
+     * @param color the color asked for
+     * @return the color to draw the store with
+     */
+    protected String colorFor(String color) {
+        return color;
+    }
 
-        dibujo = new Rectangle();
-        dibujo.changeColor(color);
-        dibujo.changeSize(40, 40);
-        dibujo.moveHorizontal(x);
-        dibujo.moveVertical(y);
-        dibujo.makeVisible();
+    /**
+     * Adds an observer told about every change of the store.
+     * @param observer the observer to add
+     */
+    public void addObserver(StoreObserver observer) {
+        if (observers.isEmpty()) {
+            observers = new ArrayList<StoreObserver>(1);
+        }
+        observers.add(observer);
+    }
 
-        screenX = x;
-        screenY = y;
-        initialScreenX = x;
-        initialScreenY = y;
+    /**
+     * Removes an observer of the store.
+     * @param observer the observer to remove
+     */
+    public void removeObserver(StoreObserver observer) {
+        observers.remove(observer);
     }
 
     /**
@@ -62,28 +140,46 @@ public class Store {
      * and restores its original color.
      */
     public void resupply() {
-        tenges = initialTenges;
-        color = initialColor;
-        dibujo.changeColor(initialColor);
+        table.setTenges(row, table.initialTenges(row));
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).storeRestocked(this);
+        }
     }
     
     /**
      * Simulates collecting money from the store.
      * Returns the amount collected and sets the store’s money to zero.
      * Also changes the color to gray when emptied.
+     * How much of it reaches a robot on a road is decided by the collect
+     * policy; kinds of store that hand over less override it.
      * 
      * @return the amount of tenges collected
      */
     public int collect() {
-        int amount = tenges;
-        tenges = 0;
+        return empty();
+    }
+
+    /**
+     * Takes all the money of the store, whatever its kind: the part of
+     * collecting that every collect policy goes through (the Discount
+     * and Fighter ones directly, TAKE_ALL through collect), so the heap
+     * of the road and the emptied count follow every collection the same
+     * way.
+     * 
+     * @return the money the store had
+     */
+    int empty() {
+        int amount = table.drain(row);
         
         // Si la tienda tenía dinero, aumenta el contador de vaciados
         if (amount > 0) {
-            emptiedCount++;
+            table.setEmptiedCount(row, table.emptiedCount(row) + 1);
         }
 
-        dibujo.changeColor("gray");
+        // Las vistas la muestran en gris
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).storeCollected(this);
+        }
         return amount;
     }
 
@@ -92,18 +188,21 @@ public class Store {
      * Restores position, money, and color.
      */
     public void reset() {
-        moveTo(initialScreenX, initialScreenY);
-        tenges = initialTenges;
-        color = initialColor;
-        emptiedCount = 0;
-        dibujo.changeColor(initialColor);
+        moveTo(table.initialScreenX(row), table.initialScreenY(row));
+        table.setTenges(row, table.initialTenges(row));
+        table.setEmptiedCount(row, 0);
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).storeRestocked(this);
+        }
     }
     
     /**
      * Makes the store visible on screen.
      */
     public void makeVisible() {
-        dibujo.makeVisible();
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).storeShown(this, true);
+        }
     }
     
     /**
@@ -111,31 +210,30 @@ public class Store {
      * @return number of times the store was collected from
      */
     public int getEmptiedCount() {
-        return emptiedCount;
+        return table.emptiedCount(row);
     }
 
     /**
      * Moves the store to a new position on screen.
-     * Updates both graphical and logical coordinates.
      * 
      * @param newX new X coordinate
      * @param newY new Y coordinate
      */
     public void moveTo(int newX, int newY) {
-        int dx = newX - screenX;
-        int dy = newY - screenY;
-        dibujo.moveHorizontal(dx);
-        dibujo.moveVertical(dy);
-        screenX = newX;
-        screenY = newY;
+        table.setScreen(row, newX, newY);
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).storeMoved(this);
+        }
     }
 
     /**
      * Deletes the store from the screen.
-     * Makes the rectangle invisible.
+     * Its views hide it.
      */
     public void delete() {
-        dibujo.makeInvisible();
+        for (int i = 0; i < observers.size(); i++) {
+            observers.get(i).storeShown(this, false);
+        }
     }
     
     /**
@@ -143,7 +241,7 @@ public class Store {
      * @return store position in the route
      */
     public int getPosition() {
-        return position;
+        return table.position(row);
     }
     
     /**
@@ -151,7 +249,7 @@ public class Store {
      * @return X coordinate
      */
     public int getScreenX() {
-        return screenX;
+        return table.screenX(row);
     }
     
     /**
@@ -159,7 +257,7 @@ public class Store {
      * @return Y coordinate
      */
     public int getScreenY() {
-        return screenY;
+        return table.screenY(row);
     }
     
     /**
@@ -167,7 +265,7 @@ public class Store {
      * @return current money
      */
     public int getTenges() {
-        return tenges;
+        return table.tenges(row);
     }
     
     /**
@@ -175,6 +273,6 @@ public class Store {
      * @return initial money
      */
     public int getInitialTenges() {
-        return initialTenges;
+        return table.initialTenges(row);
     }
 }
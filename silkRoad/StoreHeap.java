@@ -0,0 +1,166 @@
+package silkRoad;
+
+/**
+ * The StoreHeap class keeps the stores of a road ordered by their money,
+ * so the richest one is known at once. It is an indexed binary max-heap
+ * of the rows of a StoreTable, kept in the columns of the table itself:
+ * the HEAP_ROW column holds the row in each slot of the heap, and each
+ * row keeps its slot in its HEAP_SLOT column. So the heap keeps nothing
+ * per store in the Java heap, and when the money of a store changes only
+ * its own branch is fixed, in O(log n).
+ * 
+ * Stores with the same money are ordered by the time they were added:
+ * the oldest comes first, and since rows keep the order in which they
+ * were added, that is the lowest row. The table tells the heap about
+ * every change of money, and about the rows it removes.
+ * 
+ * Removing a store costs O(n), not O(log n): the rows after it move up
+ * one place in the table, and the heap follows them (see rowRemoved).
+ * Everything else is O(log n) or less.
+ * 
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+class StoreHeap {
+    private final StoreTable table;
+    private int size;
+
+    /**
+     * Creates an empty heap for the rows of a table.
+     * @param table the table whose rows the heap orders
+     */
+    public StoreHeap(StoreTable table) {
+        this.table = table;
+        table.heap = this;
+    }
+
+    /**
+     * Returns the store with the most money.
+     * @return the row of the richest store (the oldest of them on a tie),
+     *         or -1 if empty
+     */
+    public int best() {
+        return size == 0 ? -1 : table.heapRow(0);
+    }
+
+    /**
+     * Adds a store to the heap.
+     * @param row the row of the store
+     */
+    public void add(int row) {
+        place(row, size);
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Removes a store from the heap.
+     * @param row the row of the store
+     */
+    public void remove(int row) {
+        int slot = table.heapSlot(row);
+        if (slot < 0) {
+            return;
+        }
+        table.setHeapSlot(row, -1);
+        size--;
+        if (slot < size) {
+            // La última tienda ocupa el hueco y se reubica
+            move(size, slot);
+            fix(slot);
+        }
+    }
+
+    /**
+     * Follows the rows of the table after one was removed: the rows
+     * below it moved up one place. Goes over every slot, in O(n).
+     * @param removed the row that was removed
+     */
+    void rowRemoved(int removed) {
+        for (int slot = 0; slot < size; slot++) {
+            int row = table.heapRow(slot);
+            if (row > removed) {
+                table.setHeapRow(slot, row - 1);
+            }
+        }
+    }
+
+    /**
+     * Puts back in order a store whose money changed.
+     * @param row the row of the store
+     */
+    void update(int row) {
+        int slot = table.heapSlot(row);
+        if (slot >= 0) {
+            fix(slot);
+        }
+    }
+
+    /**
+     * Removes every store from the heap.
+     */
+    public void clear() {
+        for (int slot = 0; slot < size; slot++) {
+            table.setHeapSlot(table.heapRow(slot), -1);
+        }
+        size = 0;
+    }
+
+    private void fix(int slot) {
+        if (slot > 0 && before(table.heapRow(slot), table.heapRow((slot - 1) / 2))) {
+            siftUp(slot);
+        } else {
+            siftDown(slot);
+        }
+    }
+
+    private void siftUp(int slot) {
+        int row = table.heapRow(slot);
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (!before(row, table.heapRow(parent))) {
+                break;
+            }
+            move(parent, slot);
+            slot = parent;
+        }
+        place(row, slot);
+    }
+
+    private void siftDown(int slot) {
+        int row = table.heapRow(slot);
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(table.heapRow(child + 1), table.heapRow(child))) {
+                child++;
+            }
+            if (!before(table.heapRow(child), row)) {
+                break;
+            }
+            move(child, slot);
+            slot = child;
+        }
+        place(row, slot);
+    }
+
+    /**
+     * Tells if the store of a row goes before the store of another.
+     */
+    private boolean before(int row, int other) {
+        int tenges = table.tenges(row);
+        int otherTenges = table.tenges(other);
+        return tenges > otherTenges || (tenges == otherTenges && row < other);
+    }
+
+    private void move(int from, int to) {
+        place(table.heapRow(from), to);
+    }
+
+    private void place(int row, int slot) {
+        table.setHeapRow(slot, row);
+        table.setHeapSlot(row, slot);
+    }
+}
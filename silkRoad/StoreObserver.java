@@ -0,0 +1,35 @@
+package silkRoad;
+
+/**
+ * A StoreObserver is told about the changes of a store, usually to show
+ * them (see StoreView). Stores work the same with or without observers.
+ * 
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+public interface StoreObserver {
+    /**
+     * The store moved to a new place on screen.
+     * @param store the store that moved
+     */
+    void storeMoved(Store store);
+    
+    /**
+     * A robot collected the money of the store.
+     * @param store the store collected
+     */
+    void storeCollected(Store store);
+    
+    /**
+     * The store got its initial money back (resupply or reset).
+     * @param store the store restocked
+     */
+    void storeRestocked(Store store);
+    
+    /**
+     * The store was shown or hidden.
+     * @param store the store
+     * @param shown true if it is shown, false if hidden
+     */
+    void storeShown(Store store, boolean shown);
+}
@@ -0,0 +1,35 @@
+package silkRoad;
+
+/**
+ * A StorePolicy is the rule a kind of store follows when a robot collects
+ * from it: how much money the store hands over to that robot. Each kind
+ * of store has one shared policy (see Store.collectPolicy), so a new kind
+ * of store brings its own rule without changing the road.
+ * 
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+public interface StorePolicy {
+    /** The rule of ordinary stores: any robot takes all the money. */
+    StorePolicy TAKE_ALL = (store, robotMoney) -> store.collect();
+    
+    /**
+     * A robot collects from the store.
+     * @param store      the store the robot reached
+     * @param robotMoney money the robot had collected before
+     * @return the money handed over to the robot
+     */
+    int give(Store store, int robotMoney);
+    
+    /**
+     * Tells whether the store would hand its money over to a robot, without
+     * collecting anything. Robots moving at the same time use it to agree
+     * on the one robot that collects (see SilkRoad.setParallel).
+     * @param store      the store the robot reached
+     * @param robotMoney money the robot had collected before
+     * @return true if the robot may collect from the store
+     */
+    default boolean yieldsTo(Store store, int robotMoney) {
+        return true;
+    }
+}
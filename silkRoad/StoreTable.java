@@ -0,0 +1,352 @@
+package silkRoad;
+
+/**
+ * The StoreTable class keeps the state of the stores of a road, one row
+ * per store (see RowTable). Its handles are the Store objects.
+ * 
+ * A row added by kind has no Store until one is asked for: its kind
+ * tells which class of store to make then. A row may also hold a store
+ * made elsewhere, of any class (CUSTOM for classes the table does not
+ * know). The operations on rows (such as resupply) go through the object
+ * when the row has one, so its observers are told and its overrides are
+ * honored.
+ * 
+ * A table opened again from a file has the rows it had, without
+ * objects; the stores of a CUSTOM class come back as plain ones, since
+ * the file keeps no code.
+ * 
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+class StoreTable extends RowTable<Store> {
+    // columnas
+    private static final int POSITION = 0;
+    private static final int TENGES = 1;
+    private static final int INITIAL_TENGES = 2;
+    private static final int EMPTIED_COUNT = 3;
+    private static final int SCREEN_X = 4;
+    private static final int SCREEN_Y = 5;
+    private static final int INITIAL_SCREEN_X = 6;
+    private static final int INITIAL_SCREEN_Y = 7;
+    private static final int KIND = 8;
+    private static final int HEAP_SLOT = 9;
+    private static final int HANDLE = 10;
+    // no es de la fila: la fila del lugar i del montículo (ver StoreHeap)
+    private static final int HEAP_ROW = 11;
+    // no es de la fila: el primer turno que reclamó la tienda en la ronda (ver claim)
+    private static final int CLAIM = 12;
+    static final int COLUMNS = 13;
+
+    // clases de tienda de una fila
+    static final int CUSTOM = 0;     // una clase que la tabla no conoce
+    static final int PLAIN = 1;
+    static final int DISCOUNT = 2;
+    static final int FIGHTER = 3;
+    static final int AUTONOMOUS = 4;
+
+    StoreHeap heap;   // montículo que ordena estas filas (null si no hay)
+
+    /**
+     * Creates an empty table in the heap.
+     */
+    public StoreTable() {
+        this(Columns.onHeap(COLUMNS));
+    }
+
+    /**
+     * Creates an empty table.
+     * @param data where the columns are kept (with COLUMNS columns)
+     */
+    public StoreTable(Columns data) {
+        super(data, HANDLE, HEAP_ROW);
+    }
+
+    /**
+     * Adds a row for a new store.
+     * @return the row of the store
+     */
+    int add(Store store, int position, int tenges, int x, int y) {
+        int row = addRow(store);
+        fill(row, kindOf(store), position, tenges, x, y);
+        return row;
+    }
+
+    /**
+     * Adds a row for a store of a given kind, made when it is asked for.
+     * @param kind PLAIN, DISCOUNT, FIGHTER or AUTONOMOUS
+     * @return the row of the store
+     */
+    int add(int kind, int position, int tenges, int x, int y) {
+        int row = addRow(null);
+        fill(row, kind, position, tenges, x, y);
+        return row;
+    }
+
+    private void fill(int row, int kind, int position, int tenges, int x, int y) {
+        data.set(POSITION, row, position);
+        data.set(TENGES, row, tenges);
+        data.set(INITIAL_TENGES, row, tenges);
+        data.set(EMPTIED_COUNT, row, 0);
+        data.set(SCREEN_X, row, x);
+        data.set(SCREEN_Y, row, y);
+        data.set(INITIAL_SCREEN_X, row, x);
+        data.set(INITIAL_SCREEN_Y, row, y);
+        data.set(KIND, row, kind);
+        data.set(HEAP_SLOT, row, -1);
+    }
+
+    /**
+     * Moves a store, with all its state, from the table where it is to
+     * the end of this one.
+     * @param store the store to move
+     */
+    public void add(Store store) {
+        StoreTable from = store.table;
+        if (from == this) {
+            return;
+        }
+        int old = store.row;
+        adopt(store, from, old);
+        from.forget(old);
+        from.remove(old);
+    }
+
+    /**
+     * Copies the row of a store at the end of this table and makes the
+     * store read it.
+     */
+    private void adopt(Store store, StoreTable from, int old) {
+        int row = addRow(store);
+        copyRow(from, old, row);
+        data.set(KIND, row, kindOf(store));
+        data.set(HEAP_SLOT, row, -1);
+        store.table = this;
+        store.row = row;
+    }
+
+    /**
+     * Returns the kind of a row for a store of a given class.
+     */
+    private static int kindOf(Store store) {
+        Class<?> kind = store.getClass();
+        if (kind == Store.class) {
+            return PLAIN;
+        } else if (kind == Discount.class) {
+            return DISCOUNT;
+        } else if (kind == Fighter.class) {
+            return FIGHTER;
+        } else if (kind == Autonomous.class) {
+            return AUTONOMOUS;
+        }
+        return CUSTOM;
+    }
+
+    /**
+     * Removes a row, and from the heap that orders it.
+     */
+    @Override
+    public void remove(int row) {
+        if (heap != null) {
+            heap.remove(row);
+        }
+        super.remove(row);
+        if (heap != null) {
+            heap.rowRemoved(row);
+        }
+    }
+
+    @Override
+    protected Store handle(int row) {
+        switch (data.get(KIND, row)) {
+            case DISCOUNT:
+                return new Discount(this, row);
+            case FIGHTER:
+                return new Fighter(this, row);
+            case AUTONOMOUS:
+                return new Autonomous(this, row);
+            default:
+                return new Store(this, row);
+        }
+    }
+
+    @Override
+    protected void moved(Store store, int row) {
+        store.row = row;
+    }
+
+    @Override
+    protected void detach(Store store, int row) {
+        new StoreTable().adopt(store, this, row);
+    }
+
+    /**
+     * Returns the row of a store.
+     * @param store any object
+     * @return its row, or -1 if it is not a store of this table
+     */
+    public int indexOf(Object store) {
+        if (store instanceof Store && ((Store) store).table == this) {
+            return ((Store) store).row;
+        }
+        return -1;
+    }
+
+    int position(int row) {
+        return data.get(POSITION, row);
+    }
+
+    int tenges(int row) {
+        return data.get(TENGES, row);
+    }
+
+    void setTenges(int row, int tenges) {
+        data.set(TENGES, row, tenges);
+        if (heap != null) {
+            heap.update(row);
+        }
+    }
+
+    /**
+     * Takes all the money of a row, atomically: when several threads
+     * drain the same store, only one of them gets the money.
+     * @return the money the row had
+     */
+    int drain(int row) {
+        int tenges;
+        do {
+            tenges = data.get(TENGES, row);
+        } while (!data.compareAndSet(TENGES, row, tenges, 0));
+        if (heap != null) {
+            heap.update(row);
+        }
+        return tenges;
+    }
+
+    /**
+     * Forgets the claims on a row, before robots claim it again.
+     */
+    void unclaim(int row) {
+        data.set(CLAIM, row, Integer.MAX_VALUE);
+    }
+
+    /**
+     * A robot claims a row with its turn, from any thread. The row keeps
+     * the first turn that claimed it, whatever thread came first.
+     * @param turn the place of the robot in the order of arrival
+     */
+    void claim(int row, int turn) {
+        int claimed;
+        do {
+            claimed = data.get(CLAIM, row);
+            if (claimed <= turn) {
+                return;
+            }
+        } while (!data.compareAndSet(CLAIM, row, claimed, turn));
+    }
+
+    /**
+     * Returns the first turn that claimed a row since unclaim, or
+     * Integer.MAX_VALUE if no robot did.
+     */
+    int claimant(int row) {
+        return data.get(CLAIM, row);
+    }
+
+    int initialTenges(int row) {
+        return data.get(INITIAL_TENGES, row);
+    }
+
+    int emptiedCount(int row) {
+        return data.get(EMPTIED_COUNT, row);
+    }
+
+    void setEmptiedCount(int row, int count) {
+        data.set(EMPTIED_COUNT, row, count);
+    }
+
+    int screenX(int row) {
+        return data.get(SCREEN_X, row);
+    }
+
+    int screenY(int row) {
+        return data.get(SCREEN_Y, row);
+    }
+
+    void setScreen(int row, int x, int y) {
+        data.set(SCREEN_X, row, x);
+        data.set(SCREEN_Y, row, y);
+    }
+
+    /**
+     * Tells whether the square a store is shown as covers a point.
+     */
+    boolean covers(int row, int x, int y) {
+        int left = screenX(row) + Store.SHOWN_X;
+        int top = screenY(row) + Store.SHOWN_Y;
+        return x >= left && x < left + Store.SIDE && y >= top && y < top + Store.SIDE;
+    }
+
+    int initialScreenX(int row) {
+        return data.get(INITIAL_SCREEN_X, row);
+    }
+
+    int initialScreenY(int row) {
+        return data.get(INITIAL_SCREEN_Y, row);
+    }
+
+    int heapSlot(int row) {
+        return data.get(HEAP_SLOT, row);
+    }
+
+    void setHeapSlot(int row, int slot) {
+        data.set(HEAP_SLOT, row, slot);
+    }
+
+    int heapRow(int slot) {
+        return data.get(HEAP_ROW, slot);
+    }
+
+    void setHeapRow(int slot, int row) {
+        data.set(HEAP_ROW, slot, row);
+    }
+
+    /**
+     * Gives a store its initial money back.
+     */
+    void resupply(int row) {
+        Store store = kept(row);
+        if (store != null) {
+            store.resupply();
+        } else {
+            setTenges(row, initialTenges(row));
+        }
+    }
+
+    /**
+     * Puts a store back as it was created.
+     */
+    void reset(int row) {
+        Store store = kept(row);
+        if (store != null) {
+            store.reset();
+        } else {
+            setScreen(row, initialScreenX(row), initialScreenY(row));
+            setTenges(row, initialTenges(row));
+            setEmptiedCount(row, 0);
+        }
+    }
+
+    /**
+     * Shows or hides a store; a row without object has nobody to draw it.
+     */
+    void show(int row, boolean shown) {
+        Store store = kept(row);
+        if (store != null) {
+            if (shown) {
+                store.makeVisible();
+            } else {
+                store.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package silkRoad;
+
+import shapes.Canvas;
+import shapes.Rectangle;
+
+/**
+ * The StoreView class draws a store as a square on a canvas and keeps it
+ * up to date as a StoreObserver. The square is gray while the store is
+ * emptied and has the color of the store otherwise.
+ * 
+ * The black outline around the square only changes when the store moves,
+ * so it lives on the static layer of the canvas (see Canvas.STATIC_LAYER);
+ * only the fill, which changes color as robots collect, is repainted on
+ * the dynamic layers.
+ * 
+ * @author Alejandra Beltrán - Adrian Ducuara
+ * @version 2025-2
+ */
+public class StoreView implements StoreObserver {
+    private static final int BORDER = 2;   // ancho del contorno
+
+    private Rectangle borde;
+    private Rectangle dibujo;
+    private String color;
+    private int shownX;
+    private int shownY;
+
+    /**
+     * Creates the view of a store and shows it. Attach it to the store
+     * with Store.addObserver.
+     * 
+     * @param store  the store to draw
+     * @param color  color used to draw the store
+     * @param canvas canvas where the store is drawn (null to draw nothing)
+     */
+    public StoreView(Store store, String color, Canvas canvas) {
+        this.color = color;
+        shownX = store.getScreenX();
+        shownY = store.getScreenY();
+
+        // un rectángulo nuevo empieza en (Store.SHOWN_X, Store.SHOWN_Y)
+        borde = new Rectangle(canvas);
+        borde.setLayer(Canvas.STATIC_LAYER); // fijo, en caché con el camino
+        borde.changeColor("black");
+        borde.changeSize(Store.SIDE + 2 * BORDER, Store.SIDE + 2 * BORDER);
+        borde.moveHorizontal(shownX - BORDER);
+        borde.moveVertical(shownY - BORDER);
+        borde.makeVisible();
+
+        dibujo = new Rectangle(canvas);
+        dibujo.setLayer(1); // encima del camino en espiral
+        dibujo.setOwner(store);
+        dibujo.changeColor(color);
+        dibujo.changeSize(Store.SIDE, Store.SIDE);
+        dibujo.moveHorizontal(shownX);
+        dibujo.moveVertical(shownY);
+        dibujo.makeVisible();
+    }
+
+    @Override
+    public void storeMoved(Store store) {
+        borde.moveHorizontal(store.getScreenX() - shownX);
+        borde.moveVertical(store.getScreenY() - shownY);
+        dibujo.moveHorizontal(store.getScreenX() - shownX);
+        dibujo.moveVertical(store.getScreenY() - shownY);
+        shownX = store.getScreenX();
+        shownY = store.getScreenY();
+    }
+
+    @Override
+    public void storeCollected(Store store) {
+        dibujo.changeColor("gray");
+    }
+
+    @Override
+    public void storeRestocked(Store store) {
+        dibujo.changeColor(color);
+    }
+
+    @Override
+    public void storeShown(Store store, boolean shown) {
+        if (shown) {
+            borde.makeVisible();
+            dibujo.makeVisible();
+        } else {
+            borde.makeInvisible();
+            dibujo.makeInvisible();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package silkRoad;
 
+import shapes.Canvas;
+
 /**
  * The Tender class represents a special type of robot
  * that only collects half of the available profit from each store it visits.
@@ -10,6 +12,29 @@ package silkRoad;
  * @version 2025-2
  */
 public class Tender extends Robot {
+    /** The robot keeps half of the money it collects. */
+    static final RobotPolicy POLICY = amount -> amount / 2;
+
+    /**
+     * Creates a new Tender robot that is not drawn (see addObserver).
+     * 
+     * @param x      initial X coordinate
+     * @param y      initial Y coordinate
+     * @param size   diameter of the robot
+     */
+    public Tender(int x, int y, int size) {
+        super(x, y, size);
+    }
+
+    /**
+     * Makes the object of a row of a table (see RobotTable).
+     * 
+     * @param table the table of the robot
+     * @param row   its row in the table
+     */
+    Tender(RobotTable table, int row) {
+        super(table, row);
+    }
 
     /**
      * Creates a new Tender robot.
@@ -21,19 +46,49 @@ public class Tender extends Robot {
      * @param color  ignored parameter (always pink)
      */
     public Tender(int x, int y, int size, String color) {
-        super(x, y, size, "pink");
+        this(x, y, size, color, Canvas.getCanvas());
     }
 
     /**
-     * Collects money from a store but only keeps half of it.
+     * Creates a new Tender robot drawn on a given canvas.
+     * 
+     * @param x      initial X coordinate
+     * @param y      initial Y coordinate
+     * @param size   diameter of the robot
+     * @param color  ignored parameter (always pink)
+     * @param canvas canvas where the robot is drawn (null to draw nothing)
+     */
+    public Tender(int x, int y, int size, String color, Canvas canvas) {
+        super(x, y, size, "pink", canvas);
+    }
+
+    /**
+     * Collects money from a store but only keeps half of what the store
+     * hands over, following the rule of the store (a Discount store
+     * hands over 75% of its money, a Fighter store nothing to a robot
+     * poorer than it).
      * 
      * @param store the store to collect from
-     * @return half of the total amount collected from the store
+     * @return half of the amount the store handed over
      */
     public int collectFrom(Store store) {
-        // Obtiene el total del dinero de la tienda
-        int total = store.collect();
-        // Devuelve la mitad del dinero recolectado
-        return total / 2;
+        // La tienda entrega según su regla y el robot se queda con la mitad
+        return POLICY.keep(store.policy.give(store, getMoney()));
+    }
+
+    /**
+     * This robot keeps half of what it collects.
+     */
+    @Override
+    protected RobotPolicy collectPolicy() {
+        return POLICY;
+    }
+
+    /**
+     * This robot is always drawn pink.
+     */
+    @Override
+    protected String colorFor(String color) {
+        return "pink";
     }
 }
@@ -0,0 +1,684 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+import javax.swing.SwingUtilities;
+import shapes.Canvas;
+import shapes.FrameExportBackend;
+import shapes.NullBackend;
+import shapes.Palette;
+import shapes.RecordingBackend;
+import shapes.Rectangle;
+import shapes.RenderBackend;
+
+/**
+ * Pruebas unitarias para Canvas y sus backends
+ *
+ * @author Beltrán-Ducuara
+ * @version 2025-2
+ */
+public class CanvasTest {
+    private RecordingBackend backend;
+
+    @BeforeEach
+    public void setUp() {
+        backend = new RecordingBackend();
+        Canvas.useBackend(backend);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        Canvas.useBackend(new NullBackend());
+        backend = null;
+    }
+
+    /**
+     * Test: El backend de grabación recibe los dibujos de las figuras
+     */
+    @Test
+    public void shouldRecordDrawnShapes() {
+        Rectangle rectangle = new Rectangle();
+        rectangle.makeVisible();
+
+        assertEquals(1, backend.getDrawCount());
+        assertEquals("draw magenta 70,15,40,30", backend.getOperations().get(0));
+    }
+
+    /**
+     * Test: El backend de grabación recibe los borrados de las figuras
+     */
+    @Test
+    public void shouldRecordErasedShapes() {
+        Rectangle rectangle = new Rectangle();
+        rectangle.makeVisible();
+        rectangle.makeInvisible();
+
+        assertEquals(1, backend.getEraseCount());
+    }
+
+    /**
+     * Test: Las figuras invisibles no se dibujan
+     */
+    @Test
+    public void shouldNotRecordInvisibleShapes() {
+        Rectangle rectangle = new Rectangle();
+        rectangle.moveHorizontal(10);
+
+        assertEquals(0, backend.getDrawCount());
+    }
+
+    /**
+     * Test: Volver a dibujar una figura la actualiza en su lugar
+     */
+    @Test
+    public void shouldUpdateShapeInPlace() {
+        Rectangle rectangle = new Rectangle();
+        rectangle.makeVisible();
+        rectangle.moveHorizontal(10);
+        rectangle.changeColor("red");
+
+        List<String> operations = backend.getOperations();
+        assertEquals("draw red 80,15,40,30", operations.get(operations.size() - 1));
+    }
+
+    /**
+     * Test: Las capas fuera de rango no se aceptan
+     */
+    @Test
+    public void shouldRejectInvalidLayer() {
+        Rectangle rectangle = new Rectangle();
+        rectangle.makeVisible();
+        assertThrows(IllegalArgumentException.class, 
+                     () -> rectangle.setLayer(Canvas.LAYERS));
+    }
+
+    /**
+     * Test: La vista se desplaza y el zoom conserva su centro
+     */
+    @Test
+    public void shouldPanAndZoomView() {
+        Canvas canvas = Canvas.getCanvas();
+        canvas.pan(100, 50);
+        assertEquals(100, canvas.getViewX(), 1e-9);
+        assertEquals(50, canvas.getViewY(), 1e-9);
+
+        canvas.setZoom(2);
+        // el centro (500, 350) queda en el centro de la imagen de 800x600
+        assertEquals(300, canvas.getViewX(), 1e-9);
+        assertEquals(200, canvas.getViewY(), 1e-9);
+        assertEquals(2, canvas.getZoom(), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> canvas.setZoom(0));
+    }
+
+    /**
+     * Test: Se encuentran las figuras que hay en un punto o en una región
+     */
+    @Test
+    public void shouldFindShapesByPlace() {
+        Canvas canvas = Canvas.getCanvas();
+        canvas.enablePicking();
+        Rectangle first = new Rectangle();
+        first.makeVisible();                  // 70,15 a 110,45
+        Rectangle second = new Rectangle();
+        second.moveHorizontal(20);
+        second.makeVisible();                 // 90,15 a 130,45
+
+        assertSame(second, canvas.shapeAt(100, 20));
+        assertEquals(List.of(second, first), canvas.shapesAt(100, 20));
+        assertSame(first, canvas.shapeAt(75, 20));
+        assertNull(canvas.shapeAt(5, 5));
+        assertEquals(List.of(first), canvas.shapesIn(0, 0, 80, 50));
+
+        first.setLayer(2);
+        assertSame(first, canvas.shapeAt(100, 20));
+        first.makeInvisible();
+        assertNull(canvas.shapeAt(75, 20));
+    }
+
+    /**
+     * Test: Los colores RGB arbitrarios se aceptan además de los nombres
+     */
+    @Test
+    public void shouldResolveRgbColors() {
+        assertEquals(Color.orange, Palette.resolve("orange"));
+        assertEquals(new Color(0x12ab34), Palette.resolve("#12ab34"));
+        assertEquals(Color.black, Palette.resolve("unknown"));
+        assertEquals(new Color(0xABCDEF), Palette.resolve("#ABCDEF"));
+        assertEquals(Color.black, Palette.resolve("#-12345"));   // solo seis dígitos
+        assertEquals(Color.black, Palette.resolve("#+12345"));
+        assertEquals(Color.black, Palette.resolve("#12345"));
+        assertEquals(Color.black, Palette.resolve("#12ab3g"));
+        assertEquals("#12ab34", Palette.nameOf(Palette.resolve("#12ab34")));
+
+        Rectangle rectangle = new Rectangle();
+        rectangle.changeColor("#12ab34");
+        rectangle.makeVisible();
+        assertEquals("draw #12ab34 70,15,40,30", backend.getOperations().get(0));
+    }
+
+    /**
+     * Test: El backend de exportación escribe los cuadros como archivos PNG
+     */
+    @Test
+    public void shouldExportFramesAsPng(@TempDir File directory) throws IOException {
+        FrameExportBackend frames = new FrameExportBackend(directory, 30);
+        Canvas.useBackend(frames);
+        Rectangle rectangle = new Rectangle();
+        rectangle.changeColor("red");
+        rectangle.makeVisible();
+        Canvas.getCanvas().close();   // pinta lo pendiente y cierra el exportador
+
+        assertTrue(frames.getImagesWritten() >= 1);
+        BufferedImage image = ImageIO.read(lastFrame(directory, frames.getFramesWritten()));
+        assertEquals(Color.red.getRGB(), image.getRGB(80, 20));
+        assertEquals(Color.white.getRGB(), image.getRGB(5, 5));
+    }
+
+    /**
+     * Test: Cambiar de backend cierra el lienzo anterior y su backend
+     */
+    @Test
+    public void shouldCloseOldCanvasWhenChangingBackend(@TempDir File directory) throws IOException {
+        FrameExportBackend frames = new FrameExportBackend(directory, 30);
+        Canvas.useBackend(frames);
+        Rectangle rectangle = new Rectangle();
+        rectangle.changeColor("red");
+        rectangle.makeVisible();
+        Canvas.useBackend(new NullBackend());   // sin cerrar el exportador a mano
+
+        assertTrue(frames.getImagesWritten() >= 1);
+        BufferedImage image = ImageIO.read(lastFrame(directory, frames.getFramesWritten()));
+        assertEquals(Color.red.getRGB(), image.getRGB(80, 20));
+        rectangle.changeColor("blue");          // el exportador cerrado ya no escribe
+        assertEquals(frames.getImagesWritten() + 1, directory.list().length);
+    }
+
+    /**
+     * Test: Si el codificador se atrasa se pierden cuadros sin detener a quien pinta
+     */
+    @Test
+    public void shouldDropFramesWhenEncoderFallsBehind(@TempDir File directory) throws IOException {
+        FrameExportBackend frames = new FrameExportBackend(directory, 1000, 1);
+        frames.open("test", 800, 600);
+        BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < 50; i++) {
+            frames.present(image, 0, 0, 800, 600);
+            pause(2);
+        }
+        frames.close();
+
+        assertTrue(frames.getFramesDropped() > 0);
+        assertTrue(frames.getImagesWritten() >= 1);
+        assertEquals(frames.getImagesWritten() + 1, directory.list().length);   // y el índice
+        lastFrame(directory, frames.getFramesWritten());
+    }
+
+    /**
+     * Test: La secuencia de cuadros tiene tasa fija: mientras nada cambia
+     * se repite el último cuadro, y cerrar el lienzo escribe el último cambio
+     */
+    @Test
+    public void shouldExportFramesAtFixedRate(@TempDir File directory) throws Exception {
+        FrameExportBackend frames = new FrameExportBackend(directory, 20);
+        Canvas.useBackend(frames);
+        Canvas canvas = Canvas.getCanvas();
+        Rectangle rectangle = new Rectangle();
+        rectangle.makeVisible();
+        waitForFrame(canvas);
+        pause(500);                           // diez periodos sin cambios
+        rectangle.changeColor("red");
+        canvas.close();
+
+        // la pausa dura al menos diez periodos, aunque el reloj de cuadros se atrase
+        int written = frames.getFramesWritten();
+        assertTrue(written >= 10, "cuadros: " + written);
+        // los periodos sin cambios no escriben archivos
+        assertTrue(frames.getImagesWritten() < written, "imágenes: " + frames.getImagesWritten());
+        assertEquals(frames.getImagesWritten() + 1, directory.list().length);
+        BufferedImage first = ImageIO.read(new File(directory, "frame-000000.png"));
+        assertEquals(Color.magenta.getRGB(), first.getRGB(80, 20));
+        BufferedImage last = ImageIO.read(lastFrame(directory, written));
+        assertEquals(Color.red.getRGB(), last.getRGB(80, 20));
+    }
+
+    /**
+     * Test: Solo se vuelve a pintar la región que cambió
+     */
+    @Test
+    public void shouldRepaintOnlyDamagedRegion() throws Exception {
+        FrameCounter frames = new FrameCounter();
+        Canvas.useBackend(frames);
+        Canvas canvas = Canvas.getCanvas();
+        Rectangle near = new Rectangle();
+        near.makeVisible();                   // 70,15 a 110,45
+        Rectangle far = new Rectangle();
+        far.moveHorizontal(500);
+        far.moveVertical(400);
+        far.makeVisible();                    // 570,415 a 610,445
+        waitForFrame(canvas);
+
+        int before = frames.getCount();
+        near.moveHorizontal(20);
+        waitForFrame(canvas);
+
+        List<java.awt.Rectangle> regions = frames.getRegions(before);
+        assertFalse(regions.isEmpty());
+        java.awt.Rectangle farArea = new java.awt.Rectangle(570, 415, 40, 30);
+        for (java.awt.Rectangle region : regions) {
+            assertFalse(region.intersects(farArea), "se repintó " + region);
+            assertTrue(region.width < 200 && region.height < 200, "se repintó " + region);
+        }
+        assertEquals(Color.magenta.getRGB(), frames.getImage().getRGB(125, 30));
+        assertEquals(Color.white.getRGB(), frames.getImage().getRGB(75, 30));
+    }
+
+    /**
+     * Test: Dos cambios lejanos en el mismo cuadro se muestran como dos regiones pequeñas
+     */
+    @Test
+    public void shouldPresentDistantChangesApart() throws Exception {
+        FrameCounter frames = new FrameCounter();
+        Canvas.useBackend(frames);
+        Canvas canvas = Canvas.getCanvas();
+        Rectangle near = new Rectangle();
+        near.makeVisible();                   // 70,15 a 110,45
+        Rectangle far = new Rectangle();
+        far.moveHorizontal(500);
+        far.moveVertical(400);
+        far.makeVisible();                    // 570,415 a 610,445
+        waitForFrame(canvas);
+
+        int before = frames.getCount();
+        canvas.batch(() -> {
+            near.changeColor("red");
+            far.changeColor("blue");
+        });
+        waitForFrame(canvas);
+
+        List<java.awt.Rectangle> regions = frames.getRegions(before);
+        assertEquals(2, regions.size(), "regiones: " + regions);
+        for (java.awt.Rectangle region : regions) {
+            assertTrue(region.width < 100 && region.height < 100, "se repintó " + region);
+        }
+        assertEquals(Color.red.getRGB(), frames.getImage().getRGB(80, 20));
+        assertEquals(Color.blue.getRGB(), frames.getImage().getRGB(580, 420));
+    }
+
+    /**
+     * Test: Todos los cambios de un lote salen en un solo cuadro
+     */
+    @Test
+    public void shouldPaintBatchInOneFrame() throws Exception {
+        FrameCounter frames = new FrameCounter();
+        Canvas.useBackend(frames);
+        Canvas canvas = Canvas.getCanvas();
+        List<Rectangle> rectangles = new ArrayList<Rectangle>();
+        for (int i = 0; i < 20; i++) {
+            Rectangle rectangle = new Rectangle();
+            rectangle.moveVertical(i * 25);
+            rectangle.makeVisible();
+            rectangles.add(rectangle);
+        }
+        waitForFrame(canvas);
+
+        int before = frames.getCount();
+        canvas.batch(() -> {
+            for (int step = 0; step < 50; step++) {
+                for (Rectangle rectangle : rectangles) {
+                    rectangle.moveHorizontal(5);
+                }
+                pause(2);   // deja pasar ciclos del reloj en medio del lote
+            }
+        });
+        waitForFrame(canvas);
+
+        assertEquals(before + 1, frames.getCount());
+        assertEquals(Color.magenta.getRGB(), frames.getImage().getRGB(70 + 250 + 20, 30));
+    }
+
+    /**
+     * Test: Cerrar un lote que no se abrió es un error
+     */
+    @Test
+    public void shouldRejectCommitWithoutBatch() {
+        Canvas canvas = Canvas.getCanvas();
+        assertThrows(IllegalStateException.class, canvas::commitBatch);
+        canvas.beginBatch();
+        canvas.commitBatch();
+        assertThrows(IllegalStateException.class, canvas::commitBatch);
+    }
+
+    /**
+     * Test: Una tasa de cuadros que no es positiva se rechaza, también si
+     * viene de la propiedad "shapes.fps"; una mayor que 1000 pinta cada milisegundo
+     */
+    @Test
+    public void shouldRejectNonPositiveFrameRate() throws Exception {
+        try {
+            System.setProperty("shapes.fps", "0");
+            assertThrows(IllegalArgumentException.class, () -> Canvas.create(new NullBackend()));
+            System.setProperty("shapes.fps", "5000");
+            FrameCounter frames = new FrameCounter();
+            Canvas canvas = Canvas.create(frames);
+            canvas.draw("fast", "red", new java.awt.Rectangle(10, 10, 20, 20));
+            waitForFrame(canvas);
+            assertTrue(frames.getCount() > 0);
+        } finally {
+            System.clearProperty("shapes.fps");
+        }
+        Canvas canvas = Canvas.getCanvas();
+        assertThrows(IllegalArgumentException.class, () -> canvas.setFrameRate(0));
+    }
+
+    /**
+     * Test: Más cambios de los que caben en el anillo de comandos esperan
+     * al ciclo de pintura y ninguno se pierde
+     */
+    @Test
+    public void shouldApplyMoreCommandsThanTheRingHolds() throws Exception {
+        Canvas.useBackend(new FrameCounter());
+        Canvas canvas = Canvas.getCanvas();
+        java.awt.Rectangle geometry = new java.awt.Rectangle(0, 0, 2, 2);
+        for (int i = 0; i < 50000; i++) {
+            geometry.setLocation(i % 500, i / 500);
+            canvas.draw(Integer.valueOf(i), Color.red, geometry, Canvas.DEFAULT_LAYER);
+        }
+        assertEquals(Integer.valueOf(49999), canvas.shapeAt(499.5, 99.5));
+        assertEquals(50000, canvas.shapesIn(0, 0, 502, 102).size());
+    }
+
+    /**
+     * Test: Un lienzo sin raster no guarda escena salvo que se pida buscar
+     * figuras; entonces responde al momento, sin ciclo de pintura
+     */
+    @Test
+    public void shouldKeepSceneWithoutRasterOnlyWhenPicking() {
+        RecordingBackend backend = new RecordingBackend();
+        Canvas canvas = Canvas.create(backend);
+        java.awt.Rectangle geometry = new java.awt.Rectangle(10, 10, 20, 20);
+        canvas.draw("before", Color.red, geometry, Canvas.DEFAULT_LAYER);
+        assertNull(canvas.shapeAt(15, 15));
+        assertEquals(1, backend.getDrawCount());
+
+        canvas.enablePicking();
+        canvas.draw("shape", Color.red, geometry, Canvas.DEFAULT_LAYER);
+        assertEquals("shape", canvas.shapeAt(15, 15));
+        canvas.animate("shape", Color.red, new java.awt.Rectangle(200, 10, 20, 20), Canvas.DEFAULT_LAYER);
+        assertNull(canvas.shapeAt(15, 15));
+        assertEquals("shape", canvas.shapeAt(205, 15));
+        canvas.erase("shape");
+        assertNull(canvas.shapeAt(205, 15));
+        assertEquals(3, backend.getDrawCount());
+    }
+
+    /**
+     * Test: Una figura puede cambiar su geometría apenas la dibuja, porque
+     * el lienzo guarda su propia copia
+     */
+    @Test
+    public void shouldCopyReusedGeometry() throws Exception {
+        FrameCounter frames = new FrameCounter();
+        Canvas.useBackend(frames);
+        Canvas canvas = Canvas.getCanvas();
+        Object first = new Object();
+        Object second = new Object();
+        java.awt.Rectangle geometry = new java.awt.Rectangle(10, 10, 20, 20);
+        canvas.draw(first, Color.red, geometry, Canvas.DEFAULT_LAYER);
+        geometry.setBounds(100, 100, 20, 20);   // la misma geometría, en otro lugar
+        canvas.draw(second, Color.blue, geometry, Canvas.DEFAULT_LAYER);
+        geometry.setBounds(300, 300, 5, 5);
+        waitForFrame(canvas);
+
+        assertSame(first, canvas.shapeAt(15, 15));
+        assertSame(second, canvas.shapeAt(105, 105));
+        assertNull(canvas.shapeAt(302, 302));
+        assertEquals(Color.red.getRGB(), frames.getImage().getRGB(15, 15));
+        assertEquals(Color.blue.getRGB(), frames.getImage().getRGB(105, 105));
+    }
+
+    /**
+     * Test: Un movimiento lento se pinta en varios cuadros y termina en
+     * TWEEN_MILLIS, sin detener a quien lo pide
+     */
+    @Test
+    public void shouldFinishTweenWithinTweenMillis() throws Exception {
+        FrameCounter frames = new FrameCounter();
+        AtomicLong time = new AtomicLong();
+        Canvas canvas = Canvas.create(frames, time::get);   // el reloj lo mueve la prueba
+        Rectangle rectangle = new Rectangle(canvas);
+        rectangle.makeVisible();
+        waitForFrame(canvas);
+        int before = frames.getCount();
+
+        rectangle.slowMoveHorizontal(200);   // vuelve aunque el reloj no avance
+        waitForFrame(canvas);
+        assertEquals(Color.magenta.getRGB(), frames.getImage().getRGB(75, 30));
+
+        time.addAndGet(Canvas.TWEEN_MILLIS / 2);
+        waitForFrame(canvas);
+        assertEquals(Color.white.getRGB(), frames.getImage().getRGB(75, 30));
+        assertEquals(Color.magenta.getRGB(), frames.getImage().getRGB(175, 30));   // a medio camino
+
+        time.addAndGet(Canvas.TWEEN_MILLIS / 2);
+        waitForFrame(canvas);
+        assertEquals(Color.magenta.getRGB(), frames.getImage().getRGB(275, 30));
+        assertEquals(Color.white.getRGB(), frames.getImage().getRGB(175, 30));
+        assertTrue(frames.getCount() - before > 2, "intermediate frames: " + (frames.getCount() - before));
+        canvas.close();
+    }
+
+    /**
+     * Test: Una figura parpadea en varios cuadros, sin detener a quien lo
+     * pide, y vuelve a su color
+     */
+    @Test
+    public void shouldBlinkOnTheRenderLoop() throws Exception {
+        FrameCounter frames = new FrameCounter();
+        AtomicLong time = new AtomicLong();
+        Canvas canvas = Canvas.create(frames, time::get);   // el reloj lo mueve la prueba
+        Rectangle rectangle = new Rectangle(canvas);
+        rectangle.makeVisible();
+        waitForFrame(canvas);
+        int before = frames.getCount();
+
+        rectangle.blink("yellow", 2);        // vuelve aunque el reloj no avance
+        waitForFrame(canvas);
+        assertEquals(Color.yellow.getRGB(), frames.getImage().getRGB(75, 30));
+
+        // apagado, encendido y apagado: un cuadro por cada cambio
+        int[] colors = {Color.magenta.getRGB(), Color.yellow.getRGB(), Color.magenta.getRGB()};
+        for (int color : colors) {
+            time.addAndGet(Canvas.BLINK_MILLIS);
+            waitForFrame(canvas);
+            assertEquals(color, frames.getImage().getRGB(75, 30));
+        }
+        time.addAndGet(Canvas.BLINK_MILLIS);
+        waitForFrame(canvas);
+        assertTrue(frames.getCount() - before >= 4, "frames: " + (frames.getCount() - before));
+        assertEquals(Color.magenta.getRGB(), frames.getImage().getRGB(75, 30));
+        assertEquals("magenta", rectangle.getColor());
+        canvas.close();
+    }
+
+    /**
+     * Test: La capa estática se rasteriza una vez y los cuadros siguientes la reutilizan
+     */
+    @Test
+    public void shouldRasterizeStaticLayerOnce() throws Exception {
+        FrameCounter frames = new FrameCounter();
+        Canvas.useBackend(frames);
+        Canvas canvas = Canvas.getCanvas();
+        CountingShape background = new CountingShape(0, 0, 300, 200);
+        canvas.draw(background, Color.green, background, Canvas.STATIC_LAYER);
+        Rectangle moving = new Rectangle();
+        moving.makeVisible();                 // 70,15 a 110,45, encima del fondo
+        waitForFrame(canvas);
+        int painted = background.getPaints();
+        assertTrue(painted > 0);
+
+        for (int i = 0; i < 10; i++) {
+            moving.moveHorizontal(10);
+            waitForFrame(canvas);
+        }
+
+        assertEquals(painted, background.getPaints());
+        assertEquals(Color.green.getRGB(), frames.getImage().getRGB(75, 30));
+        assertEquals(Color.magenta.getRGB(), frames.getImage().getRGB(175, 30));
+    }
+
+    private static void pause(int milliseconds) {
+        try {
+            Thread.sleep(milliseconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Lee el índice de una secuencia de cuadros, revisa que sus repeticiones
+     * sumen todos los cuadros y devuelve el archivo del último
+     */
+    private static File lastFrame(File directory, int frames) throws IOException {
+        int total = 0;
+        String last = null;
+        for (String line : Files.readAllLines(new File(directory, "frames.txt").toPath())) {
+            String[] parts = line.split(" ");
+            assertTrue(new File(directory, parts[0]).isFile(), parts[0]);
+            total += Integer.parseInt(parts[1]);
+            last = parts[0];
+        }
+        assertEquals(frames, total);
+        return new File(directory, last);
+    }
+
+    /**
+     * Espera a que el ciclo de pintado aplique lo publicado y pinte su cuadro
+     */
+    private static void waitForFrame(Canvas canvas) throws Exception {
+        canvas.shapeAt(-1000000, -1000000);   // se responde después de aplicar los cambios
+        SwingUtilities.invokeAndWait(() -> { });  // el cuadro se pinta en ese mismo ciclo
+    }
+
+    /**
+     * Backend con imagen que cuenta los cuadros y guarda la región de cada uno
+     */
+    private static class FrameCounter implements RenderBackend {
+        private final List<java.awt.Rectangle> regions = new ArrayList<java.awt.Rectangle>();
+        private volatile BufferedImage image;
+
+        @Override
+        public boolean isRasterized() {
+            return true;
+        }
+
+        @Override
+        public void open(String title, int width, int height) {
+        }
+
+        @Override
+        public void setVisible(boolean visible) {
+        }
+
+        @Override
+        public synchronized void present(BufferedImage image, int x, int y, int width, int height) {
+            this.image = image;
+            regions.add(new java.awt.Rectangle(x, y, width, height));
+        }
+
+        @Override
+        public void pause(int milliseconds) {
+        }
+
+        public synchronized int getCount() {
+            return regions.size();
+        }
+
+        public synchronized List<java.awt.Rectangle> getRegions(int from) {
+            return new ArrayList<java.awt.Rectangle>(regions.subList(from, regions.size()));
+        }
+
+        public BufferedImage getImage() {
+            return image;
+        }
+    }
+
+    /**
+     * Rectángulo que cuenta cuántas veces se pinta (cada pintura pide su contorno)
+     */
+    private static class CountingShape implements java.awt.Shape {
+        private final java.awt.geom.Rectangle2D bounds;
+        private volatile int paints;
+
+        public CountingShape(double x, double y, double width, double height) {
+            bounds = new java.awt.geom.Rectangle2D.Double(x, y, width, height);
+        }
+
+        public int getPaints() {
+            return paints;
+        }
+
+        @Override
+        public java.awt.Rectangle getBounds() {
+            return bounds.getBounds();
+        }
+
+        @Override
+        public java.awt.geom.Rectangle2D getBounds2D() {
+            return bounds.getBounds2D();
+        }
+
+        @Override
+        public boolean contains(double x, double y) {
+            return bounds.contains(x, y);
+        }
+
+        @Override
+        public boolean contains(java.awt.geom.Point2D point) {
+            return bounds.contains(point);
+        }
+
+        @Override
+        public boolean intersects(double x, double y, double w, double h) {
+            return bounds.intersects(x, y, w, h);
+        }
+
+        @Override
+        public boolean intersects(java.awt.geom.Rectangle2D r) {
+            return bounds.intersects(r);
+        }
+
+        @Override
+        public boolean contains(double x, double y, double w, double h) {
+            return bounds.contains(x, y, w, h);
+        }
+
+        @Override
+        public boolean contains(java.awt.geom.Rectangle2D r) {
+            return bounds.contains(r);
+        }
+
+        @Override
+        public java.awt.geom.PathIterator getPathIterator(java.awt.geom.AffineTransform at) {
+            paints++;
+            return bounds.getPathIterator(at);
+        }
+
+        @Override
+        public java.awt.geom.PathIterator getPathIterator(java.awt.geom.AffineTransform at, double flatness) {
+            paints++;
+            return bounds.getPathIterator(at, flatness);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import shapes.CommandQueue;
+
+/**
+ * Pruebas de concurrencia para CommandQueue
+ *
+ * @author Beltrán-Ducuara
+ * @version 2025-2
+ */
+public class CommandQueueTest {
+    private static final int PRODUCERS = 8;
+    private static final int ITEMS = 100000;
+
+    /**
+     * Test: La cola vacía no entrega elementos
+     */
+    @Test
+    public void shouldStartEmpty() {
+        CommandQueue<StringBuilder> queue = new CommandQueue<StringBuilder>(4, StringBuilder::new);
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peek());
+        long position = queue.claim();
+        queue.slot(position).append("draw");
+        assertFalse(queue.isEmpty());
+        assertNull(queue.peek());            // reservado pero aún no publicado
+        queue.publish(position);
+        assertEquals("draw", queue.peek().toString());
+        queue.release();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peek());
+    }
+
+    /**
+     * Test: Un anillo lleno rechaza reservas hasta que el consumidor
+     * libera, y reutiliza los mismos elementos en la siguiente vuelta
+     */
+    @Test
+    public void shouldRejectClaimsWhenFullAndReuseSlots() {
+        CommandQueue<long[]> queue = new CommandQueue<long[]>(4, () -> new long[1]);
+        List<long[]> firstLap = new ArrayList<long[]>();
+        for (int i = 0; i < 4; i++) {
+            long position = queue.claim();
+            assertEquals(i, position);
+            long[] item = queue.slot(position);
+            item[0] = i;
+            firstLap.add(item);
+            queue.publish(position);
+        }
+        assertEquals(-1, queue.claim());
+
+        assertEquals(0, queue.peek()[0]);
+        queue.release();
+        long position = queue.claim();
+        assertEquals(4, position);
+        assertSame(firstLap.get(0), queue.slot(position));
+        queue.slot(position)[0] = 4;
+        queue.publish(position);
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, queue.peek()[0]);
+            queue.release();
+        }
+        assertTrue(queue.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new CommandQueue<long[]>(6, () -> new long[1]));
+    }
+
+    /**
+     * Test: Con muchos productores a la vez cada elemento llega una sola vez
+     * y en el orden en que cada productor lo agregó
+     */
+    @Test
+    public void shouldDeliverEveryItemOnceUnderContention() throws InterruptedException {
+        CommandQueue<long[]> queue = new CommandQueue<long[]>(1 << 10, () -> new long[2]);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<Thread>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < ITEMS; i++) {
+                    long position;
+                    while ((position = queue.claim()) < 0) {
+                        Thread.yield();          // anillo lleno: espera al consumidor
+                    }
+                    long[] item = queue.slot(position);
+                    item[0] = producer;
+                    item[1] = i;
+                    queue.publish(position);
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+
+        // el hilo de la prueba es el único consumidor
+        int[] next = new int[PRODUCERS];
+        int received = 0;
+        start.countDown();
+        long deadline = System.currentTimeMillis() + 60000;
+        while (received < PRODUCERS * ITEMS && System.currentTimeMillis() < deadline) {
+            long[] item = queue.peek();
+            if (item == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) item[0];
+            assertEquals(next[producer], item[1], "orden del productor " + producer);
+            next[producer]++;
+            received++;
+            queue.release();
+        }
+        for (Thread thread : producers) {
+            thread.join();
+        }
+
+        assertEquals(PRODUCERS * ITEMS, received);
+        assertNull(queue.peek());
+        assertTrue(queue.isEmpty());
+    }
+}
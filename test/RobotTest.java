@@ -4,7 +4,10 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import silkRoad.Discount;
 import silkRoad.Robot;
+import silkRoad.Store;
+import silkRoad.Tender;
 
 /**
  * Tests for the Robot class.
@@ -55,6 +58,17 @@ public class RobotTest {
         robot.reset();  // debería regresar a su posición inicial
         assertTrue(true);
     }
+
+    /**
+     * Verifica que un Tender se quede con la mitad de lo que entrega cada tienda.
+     */
+    @Test
+    public void testTenderCollectFrom() {
+        Tender tender = new Tender(50, 100, 20);
+        assertEquals(50, tender.collectFrom(new Store(0, 100, 0, 0)));
+        // la mitad del 75% de 100
+        assertEquals(37, tender.collectFrom(new Discount(1, 100, 0, 0)));
+    }
 }
 
 
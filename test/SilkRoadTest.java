@@ -4,8 +4,26 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import shapes.Canvas;
+import shapes.NullBackend;
+import shapes.RecordingBackend;
+import silkRoad.Robot;
+import silkRoad.RobotObserver;
 import silkRoad.SilkRoad;
 import silkRoad.SilkRoadException;
+import silkRoad.SilkRoadView;
+import silkRoad.Store;
+import silkRoad.StorePolicy;
+import silkRoad.StoreView;
+import silkRoad.Tender;
 
 /**
  * Pruebas unitarias para la clase SilkRoad
@@ -258,4 +276,679 @@ public class SilkRoadTest {
         
         assertEquals(3, silkRoad.robots().length);
     }
+
+    /**
+     * Test: Se encuentran la tienda y el robot dibujados en un punto
+     */
+    @Test
+    public void shouldFindStoreAndRobotAtPoint() {
+        try {
+            silkRoad.placeStore(100, 100);   // se dibuja de 170,65 a 210,105
+            silkRoad.placeRobot(175);        // círculo de 175,100 con diámetro 25
+            
+            assertEquals(0, silkRoad.storeAt(187, 104));
+            assertEquals(0, silkRoad.robotAt(187, 104));
+            assertEquals(0, silkRoad.storeAt(172, 70));
+            assertEquals(-1, silkRoad.robotAt(172, 70));
+            assertEquals(-1, silkRoad.storeAt(10, 10));
+        } catch (SilkRoadException e) {
+            fail("No debería lanzar excepción: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Test: Sin canvas la ruta sabe qué hay en un punto por las posiciones que guarda
+     */
+    @Test
+    public void shouldFindStoreAndRobotAtPointWithoutCanvas() throws SilkRoadException {
+        SilkRoad headless = new SilkRoad(1000, null);
+        headless.placeStore(100, 100);   // se mostraría de 170,65 a 210,105
+        headless.placeRobot(175);        // círculo de 175,100 con diámetro 25
+        headless.placeStore(110, 100);   // la última encima: de 180,65 a 220,105
+
+        assertEquals(1, headless.storeAt(187, 104));
+        assertEquals(0, headless.storeAt(172, 70));
+        assertEquals(0, headless.robotAt(187, 104));
+        assertEquals(-1, headless.robotAt(176, 101));   // esquina fuera del círculo
+        assertEquals(-1, headless.storeAt(215 + 10, 70));
+
+        headless.makeInvisible();
+        assertEquals(-1, headless.storeAt(187, 104));
+        assertEquals(-1, headless.robotAt(187, 104));
+    }
+
+    /**
+     * Test: La vista encuentra la tienda y el robot dibujados en un punto del canvas
+     */
+    @Test
+    public void shouldPickStoreAndRobotOnView() throws IOException {
+        Canvas canvas = Canvas.create(new NullBackend());
+        SilkRoadView view = new SilkRoadView(canvas);
+        Store store = new Store(0, 10, 100, 50);
+        Robot robot = new Robot(175, 100, 25);
+        view.storePlaced(store, "blue");
+        view.robotPlaced(robot, "green");
+
+        assertSame(store, view.storeAt(187, 104));
+        assertSame(robot, view.robotAt(187, 104));
+        assertNull(view.robotAt(172, 70));
+        assertNull(view.storeAt(10, 10));
+        canvas.close();
+    }
+
+    /**
+     * Test: El contorno de la tienda va en la capa estática y solo el relleno cambia al vaciarla
+     */
+    @Test
+    public void shouldDrawStoreOutlineOnStaticLayer() throws IOException {
+        Canvas canvas = Canvas.create(new NullBackend());
+        canvas.enablePicking();
+        Store store = new Store(0, 10, 100, 50);   // relleno de 170,65 a 210,105
+        store.addObserver(new StoreView(store, "blue", canvas));
+
+        List<Object> border = canvas.shapesAt(169, 66);
+        assertEquals(1, border.size());
+        shapes.Shape outline = (shapes.Shape) border.get(0);
+        assertEquals(Canvas.STATIC_LAYER, outline.getLayer());
+        shapes.Shape fill = null;
+        for (Object shape : canvas.shapesAt(187, 80)) {
+            if (shape != outline) {
+                fill = (shapes.Shape) shape;
+            }
+        }
+        assertNotNull(fill);
+        assertNotEquals(Canvas.STATIC_LAYER, fill.getLayer());
+
+        store.collect();
+        assertEquals("gray", fill.getColor());
+        assertEquals("black", outline.getColor());
+        canvas.close();
+    }
+
+    /**
+     * Test: Dos simulaciones con lienzos propios corren a la vez sin mezclarse
+     */
+    @Test
+    public void shouldRunIndependentRoadsSideBySide() throws InterruptedException {
+        RecordingBackend firstBackend = new RecordingBackend();
+        RecordingBackend secondBackend = new RecordingBackend();
+        SilkRoad first = new SilkRoad(1000, Canvas.create(firstBackend));
+        SilkRoad second = new SilkRoad(1000, Canvas.create(secondBackend));
+        int firstDraws = firstBackend.getDrawCount();
+        int secondDraws = secondBackend.getDrawCount();
+        
+        Thread firstRun = new Thread(() -> placeStores(first, 40));
+        Thread secondRun = new Thread(() -> placeStores(second, 15));
+        firstRun.start();
+        secondRun.start();
+        firstRun.join();
+        secondRun.join();
+        
+        assertEquals(40, first.stores().length);
+        assertEquals(15, second.stores().length);
+        // cada tienda: su contorno y su relleno
+        assertEquals(2 * 40, firstBackend.getDrawCount() - firstDraws);
+        assertEquals(2 * 15, secondBackend.getDrawCount() - secondDraws);
+        // la tienda 20 solo existe en la primera simulación
+        assertEquals(20, first.storeAt(20 * 50 + 75, 70));
+        assertEquals(-1, second.storeAt(20 * 50 + 75, 70));
+    }
+    
+    private static void placeStores(SilkRoad road, int count) {
+        for (int i = 0; i < count; i++) {
+            try {
+                road.placeStore(i * 50, 10);
+            } catch (SilkRoadException e) {
+                fail("No debería lanzar excepción: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Test: Los robots recorren la espiral hasta la tienda más rentable
+     */
+    @Test
+    public void shouldMoveRobotsAlongSpiral() {
+        try {
+            silkRoad.placeStore(100, 10);
+            silkRoad.placeStore(200, 50);
+            silkRoad.placeRobot(50);
+            silkRoad.placeRobot(60);
+            silkRoad.drawSpiral(400, 300, 5, 40);
+
+            silkRoad.returnRobots();
+            assertArrayEquals(new int[] {385, 250}, silkRoad.robots()[0]);
+            assertArrayEquals(new int[] {415, 250}, silkRoad.robots()[1]);
+
+            // la tienda 1 es la más rentable: posición 1 de la espiral
+            silkRoad.moveRobots();
+            assertArrayEquals(new int[] {440, 300}, silkRoad.robots()[0]);
+        } catch (SilkRoadException e) {
+            fail("No debería lanzar excepción: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Test: Con un lienzo sin ventana, mover y hacer parpadear los robots
+     * no hace esperar y deja el estado correcto
+     */
+    @Test
+    public void shouldMoveAndBlinkWithoutDelayWhenHeadless() throws SilkRoadException {
+        // con el reloj del lienzo detenido, esperar una animación no terminaría nunca
+        SilkRoad headless = new SilkRoad(1000, Canvas.create(new NullBackend(), () -> 0L));
+        headless.placeStore(100, 10);
+        headless.placeStore(200, 50);
+        headless.placeRobot(50);
+        headless.placeRobot(60);
+        headless.drawSpiral(400, 300, 5, 40);
+        headless.returnRobots();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            headless.moveRobots();
+            // la tienda 1 es la más rentable: posición 1 de la espiral
+            assertArrayEquals(new int[] {440, 300}, headless.robots()[0]);
+            assertArrayEquals(new int[] {440, 300}, headless.robots()[1]);
+            assertEquals(50, headless.profit());
+
+            for (int i = 0; i < 100; i++) {
+                headless.moveRobots();
+            }
+            // luego la tienda 0 entrega sus 10 y ya no queda dinero
+            assertEquals(10, headless.profit());
+        });
+        headless.finish();
+    }
+
+    /**
+     * Test: Un lienzo null siempre significa no dibujar nada; solo los
+     * constructores sin lienzo usan el compartido
+     */
+    @Test
+    public void shouldDrawNothingWithNullCanvas() {
+        RecordingBackend backend = new RecordingBackend();
+        Canvas.useBackend(backend);
+        try {
+            new Store(0, 10, 100, 50, "blue", null);
+            new Robot(50, 100, 25, "green", null);
+            new Tender(60, 100, 25, "pink", null);
+            new shapes.Rectangle(null).makeVisible();
+            assertEquals(0, backend.getDrawCount());
+
+            new Store(0, 10, 100, 50, "blue");     // contorno y relleno
+            new Robot(50, 100, 25, "green");
+            assertEquals(3, backend.getDrawCount());
+        } finally {
+            Canvas.useBackend(new NullBackend());
+        }
+    }
+
+    /**
+     * Test: Una ruta sin canvas simula sin dibujar nada
+     */
+    @Test
+    public void shouldSimulateWithoutViews() {
+        RecordingBackend backend = new RecordingBackend();
+        Canvas.useBackend(backend);
+        SilkRoad headless = new SilkRoad(1000, null);
+        try {
+            headless.placeStore(100, 100);
+            headless.placeStore(200, 150);
+            headless.placeRobot(50);
+            headless.placeRobot("tender", 60);
+            for (int round = 0; round < 100000; round++) {
+                headless.moveRobots();
+                headless.resupplyStores();
+            }
+        } catch (SilkRoadException e) {
+            fail("No debería lanzar excepción: " + e.getMessage());
+        } finally {
+            Canvas.useBackend(new NullBackend());
+        }
+
+        // cada ronda: 150 del primer robot y nada para el tender (tienda ya vacía)
+        assertEquals(100000 * 150, headless.profit());
+        assertEquals(-1, headless.storeAt(120, 60));
+        assertTrue(backend.getOperations().isEmpty());
+    }
+
+    /**
+     * Test: Cada ronda se recoge de la tienda más rica aunque las tiendas cambien
+     */
+    @Test
+    public void shouldCollectFromRichestStore() throws SilkRoadException {
+        SilkRoad headless = new SilkRoad(1000, null);
+        headless.placeRobot(50);
+        List<int[]> expected = new ArrayList<>(); // {inicial, actual}
+        Random random = new Random(42);
+        for (int step = 0; step < 5000; step++) {
+            int action = random.nextInt(10);
+            if (action < 4 || expected.isEmpty()) {
+                int tenges = random.nextInt(50);
+                headless.placeStore(10 * step, tenges);
+                expected.add(new int[] {tenges, tenges});
+            } else if (action < 6) {
+                int index = random.nextInt(expected.size());
+                headless.removeStore(index);
+                expected.remove(index);
+            } else if (action < 9) {
+                // la primera de las más ricas, como el recorrido lineal de antes
+                int[] best = expected.get(0);
+                for (int[] store : expected) {
+                    if (store[1] > best[1]) {
+                        best = store;
+                    }
+                }
+                int collected = best[1];
+                best[1] = 0;
+                headless.moveRobots();
+                assertEquals(collected, headless.profit());
+            } else {
+                headless.resupplyStores();
+                for (int[] store : expected) {
+                    store[1] = store[0];
+                }
+            }
+        }
+    }
+
+    /**
+     * Test: Quitar tiendas renumera las siguientes y el montículo las sigue, empates incluidos
+     */
+    @Test
+    public void shouldRenumberStoresInHeapOnRemoval() throws SilkRoadException {
+        SilkRoad headless = new SilkRoad(1000, null);
+        headless.placeRobot(50);
+        int stores = 2000;
+        for (int i = 0; i < stores; i++) {
+            headless.placeStore(i, i % 10);
+        }
+        for (int removed = 0; removed < 500; removed++) {
+            headless.removeStore(removed % 7 == 0 ? 0 : headless.stores().length / 2);
+            // la primera de las de 9 es la que se vacía
+            int[][] antes = headless.emptiedStores();
+            headless.moveRobots();
+            assertEquals(9, headless.profit());
+            int[][] despues = headless.emptiedStores();
+            int vaciada = -1;
+            for (int i = 0; i < despues.length; i++) {
+                if (despues[i][1] != antes[i][1]) {
+                    vaciada = i;
+                    break;
+                }
+            }
+            int[][] posiciones = headless.stores();
+            assertTrue(vaciada >= 0);
+            headless.resupplyStores();
+            // ninguna tienda de 9 antes de la vaciada
+            for (int i = 0; i < vaciada; i++) {
+                assertNotEquals(9, posiciones[i][0] % 10);
+            }
+            assertEquals(9, posiciones[vaciada][0] % 10);
+        }
+    }
+
+    /**
+     * Test: Al quitar una tienda las siguientes ocupan su lugar con todo su estado
+     */
+    @Test
+    public void shouldKeepStoreStateAfterRemoval() throws SilkRoadException {
+        SilkRoad headless = new SilkRoad(1000, null);
+        headless.placeStore(100, 10);
+        headless.placeStore(200, 50);
+        headless.placeStore(300, 30);
+        headless.placeRobot(50);
+        headless.moveRobots();          // vacía la tienda de 50
+        headless.removeStore(0);
+
+        assertArrayEquals(new int[][] {{200, 50}, {300, 50}}, headless.stores());
+        assertArrayEquals(new int[][] {{0, 1}, {1, 0}}, headless.emptiedStores());
+        headless.profit();
+        headless.moveRobots();
+        assertEquals(30, headless.profit());
+    }
+
+    /**
+     * Test: Una tienda quitada de la ruta conserva su estado y las demás el suyo
+     */
+    @Test
+    public void shouldKeepRemovedStoreApart() throws SilkRoadException {
+        SilkRoad headless = new SilkRoad(1000, null);
+        Store placed = new Store(0, 40, 100, 50);
+        headless.placeStore(10, 20);
+        headless.placeStore(placed);
+        headless.placeStore(30, 60);
+        headless.placeRobot(50);
+        headless.moveRobots();          // vacía la tienda de 60
+        headless.removeStore(1);
+
+        assertEquals(40, placed.getTenges());
+        assertEquals(100, placed.getScreenX());
+        placed.collect();
+        assertArrayEquals(new int[][] {{10, 50}, {30, 50}}, headless.stores());
+        headless.resupplyStores();
+        headless.profit();
+        headless.moveRobots();
+        assertEquals(60, headless.profit());
+    }
+
+    /**
+     * Test: Las rutas con el estado fuera del heap o en un archivo responden igual
+     */
+    @Test
+    public void shouldKeepStateOffHeap(@TempDir File directory) throws Exception {
+        SilkRoad[] roads = {new SilkRoad(1000, null), SilkRoad.offHeap(1000, null), 
+                            SilkRoad.mapped(1000, null, directory)};
+        int[] profits = new int[roads.length];
+        for (int r = 0; r < roads.length; r++) {
+            SilkRoad road = roads[r];
+            // más filas que un bloque de memoria fuera del heap
+            for (int i = 0; i < 20000; i++) {
+                road.placeStore(i, (i * 7919) % 1000);
+            }
+            road.placeRobot(10);
+            road.placeRobot("tender", 20);
+            road.removeStore(5);
+            road.removeStore(16390);
+            road.removeRobot(0);
+            road.placeRobot(30);
+            for (int round = 0; round < 50; round++) {
+                road.moveRobots();
+            }
+            road.moveRobot(1, 70, 80);
+            profits[r] = road.profit();
+        }
+
+        assertTrue(new File(directory, "stores.bin").length() > 0);
+        for (int r = 1; r < roads.length; r++) {
+            assertEquals(profits[0], profits[r]);
+            assertArrayEquals(roads[0].stores(), roads[r].stores());
+            assertArrayEquals(roads[0].robots(), roads[r].robots());
+            assertArrayEquals(roads[0].emptiedStores(), roads[r].emptiedStores());
+        }
+        for (SilkRoad road : roads) {
+            road.close();
+        }
+    }
+
+    /**
+     * Test: Una ruta en archivos vuelve a abrirse con sus tiendas y robots
+     */
+    @Test
+    public void shouldReopenMappedRoad(@TempDir File directory) throws Exception {
+        SilkRoad expected = new SilkRoad(1000, null);
+        try (SilkRoad mapped = SilkRoad.mapped(1000, null, directory)) {
+            for (SilkRoad road : new SilkRoad[] {expected, mapped}) {
+                for (int i = 0; i < 300; i++) {
+                    road.placeStore(i, (i * 7919) % 1000);
+                }
+                road.placeStore("discount", 400, 900);
+                road.placeRobot(10);
+                road.placeRobot("tender", 20);
+                road.removeStore(7);
+                for (int round = 0; round < 20; round++) {
+                    road.moveRobots();
+                }
+            }
+        }
+
+        try (SilkRoad reopened = SilkRoad.mapped(1000, null, directory)) {
+            assertArrayEquals(expected.stores(), reopened.stores());
+            assertArrayEquals(expected.robots(), reopened.robots());
+            assertArrayEquals(expected.emptiedStores(), reopened.emptiedStores());
+            assertEquals(expected.robotMoney(1), reopened.robotMoney(1));
+            // el montículo se rehace: la siguiente ronda va a la misma tienda
+            expected.profit();
+            for (int round = 0; round < 20; round++) {
+                expected.moveRobots();
+                reopened.moveRobots();
+            }
+            assertEquals(expected.profit(), reopened.profit());
+            assertArrayEquals(expected.emptiedStores(), reopened.emptiedStores());
+        }
+    }
+
+    /**
+     * Test: Los archivos de otra tabla no se abren como una ruta
+     */
+    @Test
+    public void shouldRejectFilesOfAnotherTable(@TempDir File directory) throws Exception {
+        SilkRoad.mapped(1000, null, directory).close();
+        File robots = new File(directory, "robots.bin");
+        assertTrue(robots.delete());
+        assertTrue(new File(directory, "stores.bin").renameTo(robots));
+
+        assertThrows(IOException.class, () -> SilkRoad.mapped(1000, null, directory));
+    }
+
+    /**
+     * Test: El dinero de cada robot se conserva entre rondas y decide la regla Fighter
+     */
+    @Test
+    public void shouldKeepRobotMoneyBetweenRounds() throws SilkRoadException {
+        SilkRoad road = new SilkRoad(1000, null);
+        road.placeStore(100, 150);
+        road.placeStore("fighter", 200, 100);
+        road.placeRobot(10);
+
+        road.moveRobots();
+        assertEquals(150, road.profit());
+        assertEquals(150, road.robotMoney(0));
+
+        // con 150 el robot ya tiene más dinero que la Fighter de 100
+        road.moveRobots();
+        assertEquals(100, road.profit());
+        assertEquals(250, road.robotMoney(0));
+        assertThrows(SilkRoadException.class, () -> road.robotMoney(1));
+
+        road.reboot();
+        assertEquals(0, road.robotMoney(0));
+    }
+
+    /**
+     * Test: Cada clase de tienda y de robot aplica su regla de recolección una sola vez
+     */
+    @Test
+    public void shouldApplyCollectPoliciesOnce() throws SilkRoadException {
+        SilkRoad road = new SilkRoad(1000, null);
+        road.placeStore("discount", 100, 200);
+        road.placeStore(300, 120);
+        road.placeRobot("tender", 10);
+        road.placeRobot(20);
+
+        road.moveRobots();
+        assertEquals(75, road.robotMoney(0));       // la mitad del 75% de 200, una sola vez
+        assertEquals(0, road.robotMoney(1));
+        road.moveRobots();
+        assertEquals(135, road.robotMoney(0));      // más la mitad de 120
+        assertEquals(135, road.profit());
+    }
+
+    /**
+     * Test: Una clase nueva de tienda trae su regla sin cambiar la ruta
+     */
+    @Test
+    public void shouldCollectFromNewKindOfStore() throws SilkRoadException {
+        SilkRoad road = new SilkRoad(1000, null);
+        road.placeStore(new Store(0, 100, 100, 50) {
+            @Override
+            protected StorePolicy collectPolicy() {
+                return (store, robotMoney) -> store.collect() / 10;
+            }
+        });
+        road.placeRobot(new Tender(10, 100, 25));
+
+        road.moveRobots();
+        assertEquals(5, road.profit());
+        assertEquals(1, road.emptiedStores()[0][1]);
+    }
+
+    /**
+     * Test: Una tienda o un robot que ya está en una ruta no se coloca otra vez
+     */
+    @Test
+    public void shouldRejectStoreAlreadyPlaced() throws SilkRoadException {
+        SilkRoad road = new SilkRoad(1000, null);
+        SilkRoad other = new SilkRoad(1000, null);
+        Store store = new Store(0, 100, 100, 50);
+        Robot robot = new Robot(10, 100, 25);
+        road.placeStore(store);
+        road.placeStore(200, 50);
+        road.placeRobot(robot);
+
+        assertThrows(SilkRoadException.class, () -> road.placeStore(store));
+        assertThrows(SilkRoadException.class, () -> other.placeStore(store));
+        assertThrows(SilkRoadException.class, () -> road.placeRobot(robot));
+        assertEquals(2, road.stores().length);
+        assertEquals(1, road.robots().length);
+
+        // el montículo no repitió la tienda: tras vaciarla sigue la de 50
+        road.moveRobots();
+        road.moveRobots();
+        assertEquals(150, road.profit());
+        road.moveRobots();
+        assertEquals(0, road.profit());
+    }
+
+    /**
+     * Test: Los robots llegan a la tienda en el orden de desempate, y en empate por colocación
+     */
+    @Test
+    public void shouldReachStoresInTieBreakOrder() throws SilkRoadException {
+        SilkRoad road = new SilkRoad(1000, null);
+        road.setTieBreak(Comparator.comparingInt(Robot::getMoney)); // primero el más pobre
+        road.drawSpiral(400, 300, 400, 10);
+        road.placeStore(100, 100);
+        road.placeStore(200, 80);
+        for (int i = 0; i < 3; i++) {
+            road.placeRobot(i);
+        }
+
+        road.moveRobots();      // todos sin dinero: llega primero el robot 0
+        road.moveRobots();      // el robot 1, el más pobre de los primeros
+        road.resupplyStores();
+        road.moveRobots();      // el robot 2
+        assertEquals(100, road.robotMoney(0));
+        assertEquals(80, road.robotMoney(1));
+        assertEquals(100, road.robotMoney(2));
+
+        // sin desempate, en el orden de colocación
+        road.setTieBreak(null);
+        road.moveRobots();
+        assertEquals(180, road.robotMoney(0));
+    }
+
+    /**
+     * Test: El desempate ordena bien muchos robots, ronda tras ronda
+     */
+    @Test
+    public void shouldSortManyRobotsByTieBreak() throws SilkRoadException {
+        SilkRoad road = new SilkRoad(1000, null);
+        road.setTieBreak(Comparator.comparingInt(Robot::getMoney));
+        road.placeStore(100, 1);
+        for (int i = 0; i < 100; i++) {
+            road.placeRobot(i);
+        }
+
+        // cada ronda recoge el primero de los más pobres: uno tras otro
+        for (int round = 0; round < 250; round++) {
+            road.moveRobots();
+            road.resupplyStores();
+            int pobre = (round + 1) % 100;
+            assertEquals(round / 100 + (pobre == 0 ? 1 : 0), road.robotMoney(pobre));
+        }
+        assertEquals(3, road.robotMoney(49));
+        assertEquals(2, road.robotMoney(50));
+    }
+
+    /**
+     * Test: Mover los robots al mismo tiempo da los mismos totales que uno por uno
+     */
+    @Test
+    public void shouldMoveRobotsInParallelLikeSequential() throws SilkRoadException, IOException {
+        List<Comparator<Robot>> tieBreaks = new ArrayList<>();
+        tieBreaks.add(null);
+        tieBreaks.add(Comparator.comparingInt(Robot::getMoney).reversed());
+        for (Comparator<Robot> tieBreak : tieBreaks) {
+            SilkRoad sequential = new SilkRoad(1000, null);
+            SilkRoad parallel = new SilkRoad(1000, null);
+            SilkRoad parallelOffHeap = SilkRoad.offHeap(1000, null);
+            parallel.setParallel(true);
+            parallelOffHeap.setParallel(true);
+            SilkRoad[] roads = {sequential, parallel, parallelOffHeap};
+            for (SilkRoad road : roads) {
+                Random random = new Random(25);
+                road.setTieBreak(tieBreak);
+                road.drawSpiral(400, 300, 400, 10);
+                for (int i = 0; i < 40; i++) {
+                    int kind = random.nextInt(3);
+                    if (kind == 0) {
+                        road.placeStore(i, random.nextInt(500));
+                    } else {
+                        road.placeStore(kind == 1 ? "discount" : "fighter", i, random.nextInt(500));
+                    }
+                }
+                for (int i = 0; i < 64; i++) {
+                    if (random.nextBoolean()) {
+                        road.placeRobot("tender", i);
+                    } else {
+                        road.placeRobot(i);
+                    }
+                }
+            }
+            for (int round = 0; round < 300; round++) {
+                for (SilkRoad road : roads) {
+                    road.moveRobots();
+                    if (round % 50 == 49) {
+                        road.resupplyStores();
+                    }
+                }
+            }
+
+            for (SilkRoad road : new SilkRoad[] {parallel, parallelOffHeap}) {
+                assertEquals(sequential.profit(), road.profit());
+                for (int i = 0; i < 64; i++) {
+                    assertEquals(sequential.robotMoney(i), road.robotMoney(i));
+                }
+                assertArrayEquals(sequential.robots(), road.robots());
+                assertArrayEquals(sequential.emptiedStores(), road.emptiedStores());
+            }
+            parallelOffHeap.close();
+        }
+    }
+
+    /**
+     * Test: Al mover los robots al mismo tiempo, los observadores se avisan en el hilo que llama
+     */
+    @Test
+    public void shouldNotifyObserversOnCallingThreadWhenParallel() throws SilkRoadException {
+        SilkRoad road = new SilkRoad(1000, null);
+        road.setParallel(true);
+        road.drawSpiral(400, 300, 400, 10);
+        road.placeStore(100, 50);
+        for (int i = 0; i < 32; i++) {
+            road.placeRobot(i);
+        }
+        Robot watched = new Robot(0, 0, 10);
+        List<Thread> threads = new ArrayList<>();
+        watched.addObserver(new RobotObserver() {
+            public void robotMoved(Robot robot) {
+                threads.add(Thread.currentThread());
+            }
+
+            public void robotBlinked(Robot robot) {
+                threads.add(Thread.currentThread());
+            }
+
+            public void robotShown(Robot robot, boolean shown) {
+            }
+        });
+        road.placeRobot(watched);
+
+        road.moveRobots();
+        assertFalse(threads.isEmpty());
+        for (Thread thread : threads) {
+            assertSame(Thread.currentThread(), thread);
+        }
+        assertEquals(50, road.robotMoney(0));
+    }
 }
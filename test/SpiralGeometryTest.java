@@ -0,0 +1,61 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import silkRoad.SpiralGeometry;
+
+/**
+ * Pruebas unitarias para la clase SpiralGeometry
+ *
+ * @author Beltrán-Ducuara
+ * @version 2025-2
+ */
+public class SpiralGeometryTest {
+
+    /**
+     * Test: Las posiciones siguen la espiral derecha, abajo, izquierda y arriba
+     */
+    @Test
+    public void shouldFollowSquareSpiral() {
+        SpiralGeometry spiral = SpiralGeometry.of(400, 300, 10);
+        int[][] expected = {{400, 300}, {410, 300}, {410, 310}, {400, 310}, {390, 310}, 
+                            {390, 300}, {390, 290}, {400, 290}, {410, 290}, {420, 290}};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i][0], spiral.xOf(i));
+            assertEquals(expected[i][1], spiral.yOf(i));
+        }
+    }
+
+    /**
+     * Test: El índice de cada posición se recupera desde sus coordenadas
+     */
+    @Test
+    public void shouldFindIndexOfPosition() {
+        SpiralGeometry spiral = SpiralGeometry.of(-50, 20, 7);
+        for (int i = 0; i < 100000; i++) {
+            assertEquals(i, spiral.indexOf(spiral.xOf(i), spiral.yOf(i)));
+        }
+        int far = 2000000000;
+        assertEquals(far, spiral.indexOf(spiral.xOf(far), spiral.yOf(far)));
+        assertEquals(-1, spiral.indexOf(-49, 20));
+        assertThrows(IndexOutOfBoundsException.class, () -> spiral.xOf(-1));
+    }
+
+    /**
+     * Test: Las espirales iguales comparten una sola geometría y la caché tiene límite
+     */
+    @Test
+    public void shouldShareGeometryOfSameSpiral() {
+        SpiralGeometry first = SpiralGeometry.of(123, 456, 20);
+        assertSame(first, SpiralGeometry.of(123, 456, 20));
+        assertNotSame(first, SpiralGeometry.of(123, 456, 30));
+
+        // al llenar la caché con otras espirales se olvida la más antigua
+        for (int i = 0; i < SpiralGeometry.CACHE_SIZE; i++) {
+            SpiralGeometry.of(i, -1000, 1);
+        }
+        SpiralGeometry again = SpiralGeometry.of(123, 456, 20);
+        assertNotSame(first, again);
+        assertEquals(first, again);
+    }
+}
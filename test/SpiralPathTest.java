@@ -0,0 +1,105 @@
+package test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import shapes.Canvas;
+import shapes.RecordingBackend;
+import silkRoad.SpiralPath;
+
+/**
+ * Pruebas unitarias para la clase SpiralPath
+ *
+ * @author Beltrán-Ducuara
+ * @version 2025-2
+ */
+public class SpiralPathTest {
+    private RecordingBackend backend;
+    private SpiralPath path;
+
+    @BeforeEach
+    public void setUp() {
+        backend = new RecordingBackend();
+        path = new SpiralPath(Canvas.create(backend));
+        path.makeVisible();
+    }
+
+    /**
+     * Test: Cada tramo recto de la espiral es un solo segmento
+     */
+    @Test
+    public void shouldDrawOneSegmentPerStraightRun() {
+        // 100 pasos en tramos de 1, 1, 2, 2, ..., 9, 9 y uno final de 10
+        path.drawSquareSpiral(400, 300, 101, 10);
+
+        assertEquals(19, path.getSegmentCount());
+        assertEquals(19, backend.getDrawCount());
+        assertEquals("draw black 400,300,10,5", backend.getOperations().get(0));
+        assertEquals("draw black 410,300,5,10", backend.getOperations().get(1));
+        assertEquals("draw black 390,310,20,5", backend.getOperations().get(2));
+    }
+
+    /**
+     * Test: Los puntos seguidos en la misma línea comparten segmento
+     */
+    @Test
+    public void shouldMergeCollinearPathPoints() {
+        path.drawPath(new int[][] {{0, 0}, {10, 0}, {20, 0}, {20, 10}, {20, 30}, {10, 30}});
+
+        assertEquals(3, path.getSegmentCount());
+        assertEquals("draw black 0,0,20,5", backend.getOperations().get(0));
+        assertEquals("draw black 20,0,5,30", backend.getOperations().get(1));
+    }
+
+    /**
+     * Test: Crecer la espiral punto a punto da los mismos segmentos que dibujarla entera
+     */
+    @Test
+    public void shouldExtendSpiralFromItsTail() {
+        RecordingBackend wholeBackend = new RecordingBackend();
+        SpiralPath whole = new SpiralPath(Canvas.create(wholeBackend));
+        whole.makeVisible();
+        whole.drawSquareSpiral(400, 300, 101, 10);
+
+        path.drawSquareSpiral(400, 300, 1, 10);
+        for (int points = 2; points < 101; points++) {
+            path.extendSpiral(1);
+        }
+        backend.clear();
+        path.extendSpiral(1);
+
+        // el último punto solo estira el último segmento
+        assertEquals(101, path.getSpiralPoints());
+        assertEquals(19, path.getSegmentCount());
+        assertTrue(backend.getOperations().size() <= 2);
+        List<String> wholeOperations = wholeBackend.getOperations();
+        List<String> operations = backend.getOperations();
+        assertEquals(wholeOperations.get(wholeOperations.size() - 1), 
+                     operations.get(operations.size() - 1));
+    }
+
+    /**
+     * Test: Acortar la espiral quita solo los segmentos de la cola
+     */
+    @Test
+    public void shouldRetractSpiralFromItsTail() {
+        path.drawSquareSpiral(400, 300, 101, 10);
+        path.retractSpiral(97);
+
+        // quedan 3 pasos: derecha, abajo y uno a la izquierda
+        assertEquals(4, path.getSpiralPoints());
+        assertEquals(3, path.getSegmentCount());
+        assertEquals(16, backend.getEraseCount());
+        List<String> operations = backend.getOperations();
+        assertEquals("draw black 400,310,10,5", operations.get(operations.size() - 1));
+
+        backend.clear();
+        path.drawSquareSpiral(400, 300, 6, 10);
+        // se completa el tramo a la izquierda y se agrega uno hacia arriba
+        assertEquals(4, path.getSegmentCount());
+        assertEquals(0, backend.getEraseCount());
+        assertEquals(List.of("draw black 390,310,10,5", "draw black 390,310,20,5", 
+                             "draw black 390,300,5,10"), backend.getOperations());
+    }
+}
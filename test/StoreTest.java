@@ -4,6 +4,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import silkRoad.Discount;
 import silkRoad.Store;
 
 /**
@@ -59,6 +60,17 @@ public class StoreTest {
         assertEquals(20, store.getScreenX());
         assertEquals(20, store.getScreenY());
     }
+
+    /**
+     * Una tienda Discount entrega el 75% de su dinero y queda vacía.
+     */
+    @Test
+    public void testDiscountCollect() {
+        Discount discount = new Discount(2, 100, 40, 40);
+        assertEquals(75, discount.collect());
+        assertEquals(0, discount.getTenges());
+        assertEquals(1, discount.getEmptiedCount());
+    }
 }
 
 